@@ -0,0 +1,102 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.AdaptiveConcurrencyTransport;
+import uk.ac.ebi.pride.archive.web.service.example.HttpStatusException;
+import uk.ac.ebi.pride.archive.web.service.example.PooledTransport;
+import uk.ac.ebi.pride.archive.web.service.example.Transport;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+import uk.ac.ebi.pride.archive.web.service.example.stub.StubServer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a fan-out of 64 parallel file list requests against a stub server
+ * that processes 16 requests at a time and sheds requests queued for more
+ * than 20 ms with '503 Service Unavailable'.
+ *
+ * Without a limit the fan-out overloads the server and many requests fail.
+ * With the adaptive limit the number of requests in flight converges to the
+ * capacity of the server: the limit is printed after every iteration, the
+ * successful and the rejected requests are reported as secondary results.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class AdaptiveConcurrencyBenchmark {
+
+    private static final int SERVER_CAPACITY = 16;
+
+    @Param({"false", "true"})
+    public boolean adaptive;
+
+    private StubServer stub;
+    private AdaptiveConcurrencyTransport adaptiveTransport;
+    private WsClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = new StubServer(0);
+        stub.setLatency(5, 5, TimeUnit.MILLISECONDS);
+        stub.setCapacity(SERVER_CAPACITY, 20, TimeUnit.MILLISECONDS);
+        stub.start();
+        Transport transport = new PooledTransport(64);
+        if (adaptive) {
+            adaptiveTransport = new AdaptiveConcurrencyTransport(transport);
+            transport = adaptiveTransport;
+        }
+        client = new WsClient(stub.getBaseUrl(), transport, null);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printLimit() {
+        if (adaptiveTransport != null) {
+            System.out.printf("%nlimit: %d, decreased %d times%n",
+                    adaptiveTransport.getLimit(), adaptiveTransport.getDecreaseCount());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        stub.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+
+        private static final AtomicInteger threads = new AtomicInteger();
+        private final int thread = threads.incrementAndGet();
+        private int next;
+
+        public long successes;
+        public long rejected;
+
+        String nextAccession() {
+            // a different assay for every request, so no requests are coalesced
+            return thread + "-" + (next++ % 1000);
+        }
+    }
+
+    @Benchmark
+    public Object getFilesForAssay(Outcomes outcomes) throws Exception {
+        try {
+            Object files = client.getFilesForAssay(outcomes.nextAccession());
+            outcomes.successes++;
+            return files;
+        } catch (HttpStatusException e) {
+            if (e.getStatusCode() != 503) {
+                throw e;
+            }
+            outcomes.rejected++;
+            return e;
+        }
+    }
+}
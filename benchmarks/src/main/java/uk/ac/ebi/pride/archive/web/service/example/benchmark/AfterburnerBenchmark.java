@@ -0,0 +1,61 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares mapping the list responses of the web service through reflection
+ * (the default of the WsClient) with mapping them with bytecode generated
+ * by the Afterburner module (the WsClient's useAfterburner mode).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class AfterburnerBenchmark {
+
+    @Param({"FILES", "ASSAYS", "PROJECTS"})
+    public DeserializationBenchmark.ListType listType;
+
+    @Param({"1000", "100000"})
+    public int entries;
+
+    private ObjectReader reflectiveReader;
+    private ObjectReader afterburnerReader;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        reflectiveReader = createObjectMapper().reader(listType.type);
+        ObjectMapper afterburnerMapper = createObjectMapper();
+        afterburnerMapper.registerModule(new AfterburnerModule());
+        afterburnerReader = afterburnerMapper.reader(listType.type);
+        body = listType.payload(entries).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object reflective() throws Exception {
+        return reflectiveReader.readValue(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public Object afterburner() throws Exception {
+        return afterburnerReader.readValue(new ByteArrayInputStream(body));
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        // configured the same way as the mapper of the WsClient
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return objectMapper;
+    }
+}
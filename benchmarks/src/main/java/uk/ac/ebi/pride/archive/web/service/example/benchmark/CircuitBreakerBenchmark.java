@@ -0,0 +1,101 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.CircuitBreakerTransport;
+import uk.ac.ebi.pride.archive.web.service.example.CircuitOpenException;
+import uk.ac.ebi.pride.archive.web.service.example.HttpStatusException;
+import uk.ac.ebi.pride.archive.web.service.example.PooledTransport;
+import uk.ac.ebi.pride.archive.web.service.example.Transport;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+import uk.ac.ebi.pride.archive.web.service.example.stub.StubServer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the project detail requests of a crawler while the file list
+ * endpoint of the stub server is down: its requests stall for a second and
+ * then fail with '503 Service Unavailable'.
+ *
+ * Both kinds of requests share a pool of 4 connections. Without circuit
+ * breakers the stalled file list requests take up the connections and the
+ * healthy project requests queue behind them. With the breakers the file
+ * list requests fail fast and the project requests keep their throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CircuitBreakerBenchmark {
+
+    @Param({"false", "true"})
+    public boolean circuitBreakers;
+
+    private StubServer stub;
+    private WsClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = new StubServer(0);
+        stub.setLatency(2, 0, TimeUnit.MILLISECONDS);
+        stub.setOutage("/file/list/", 1, TimeUnit.SECONDS);
+        stub.start();
+        Transport transport = new PooledTransport(4);
+        if (circuitBreakers) {
+            transport = new CircuitBreakerTransport(transport, 5, 5, TimeUnit.SECONDS);
+        }
+        client = new WsClient(stub.getBaseUrl(), transport, null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        stub.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+
+        private static final AtomicInteger threads = new AtomicInteger();
+        private final int thread = threads.incrementAndGet();
+        private int next;
+
+        public long projects;
+        public long fileListsFailed;
+
+        String nextAccession() {
+            // a different project for every request, so no requests are coalesced
+            return "PXD" + thread + "-" + (next++ % 1000);
+        }
+    }
+
+    @Benchmark
+    @Group("crawler")
+    @GroupThreads(4)
+    public Object getProjectDetails(Outcomes outcomes) throws Exception {
+        Object project = client.getProjectDetails(outcomes.nextAccession());
+        outcomes.projects++;
+        return project;
+    }
+
+    @Benchmark
+    @Group("crawler")
+    @GroupThreads(4)
+    public Object getFilesForProject(Outcomes outcomes) throws Exception {
+        try {
+            return client.getFilesForProject(outcomes.nextAccession());
+        } catch (CircuitOpenException e) {
+            outcomes.fileListsFailed++;
+            // a crawler backing off a little before moving on to the next project
+            Thread.sleep(10);
+            return e;
+        } catch (HttpStatusException e) {
+            outcomes.fileListsFailed++;
+            return e;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.CompressingTransport;
+import uk.ac.ebi.pride.archive.web.service.example.PooledTransport;
+import uk.ac.ebi.pride.archive.web.service.example.Transport;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+import uk.ac.ebi.pride.archive.web.service.example.stub.StubServer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the end-to-end time of retrieving and mapping the file list of a
+ * project, with and without compressed responses, over an unlimited and a
+ * 10 MB/s link to the stub server.
+ *
+ * The average number of bytes on the wire per request is printed after each
+ * iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+    private static final int ACCESSIONS = 8;
+
+    @Param({"false", "true"})
+    public boolean compressed;
+
+    @Param({"100", "10000"})
+    public int filesPerProject;
+
+    // bytes per second, 0 for loopback speed
+    @Param({"0", "10000000"})
+    public long bandwidth;
+
+    private StubServer stub;
+    private WsClient client;
+    private int next;
+    private long requests;
+
+    @Setup
+    public void setUp() throws Exception {
+        stub = new StubServer(0);
+        stub.setFilesPerProject(filesPerProject);
+        stub.setBandwidth(bandwidth);
+        stub.start();
+        Transport transport = new PooledTransport();
+        if (compressed) {
+            transport = new CompressingTransport(transport);
+        }
+        client = new WsClient(stub.getBaseUrl(), transport, null);
+        // generate (and compress) the payloads before measuring
+        for (int i = 0; i < ACCESSIONS; i++) {
+            getFilesForProject();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounts() {
+        stub.resetCounts();
+        requests = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printBytes() {
+        if (requests > 0) {
+            System.out.printf("%nbytes on the wire per request: %d%n", stub.getBytesSent() / requests);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public Object getFilesForProject() throws Exception {
+        requests++;
+        return client.getFilesForProject("PXD" + (next++ % ACCESSIONS));
+    }
+}
@@ -0,0 +1,61 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per call cost of counting projects, one at a time and for
+ * many keyword sets at once, with the count response served from memory,
+ * so only the client side of the calls is measured. Run with '-prof gc' to
+ * compare the bytes allocated per count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CountBenchmark {
+
+    private static final Set<String> KEYWORDS = Collections.singleton("cancer");
+
+    @Param({"1000"})
+    public int keywordSets;
+
+    private WsClient client;
+    private List<Set<String>> manyKeywords;
+
+    @Setup
+    public void setUp() {
+        byte[] body = "1234567\n".getBytes(StandardCharsets.UTF_8);
+        client = new WsClient(new ProjectionBenchmark.InMemoryTransport(body));
+        manyKeywords = new ArrayList<>();
+        for (int i = 0; i < keywordSets; i++) {
+            manyKeywords.add(new HashSet<>(Arrays.asList("cancer", "keyword" + i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+    }
+
+    @Benchmark
+    public long count() throws Exception {
+        return client.countProjects(KEYWORDS);
+    }
+
+    @Benchmark
+    public long[] countMany() throws Exception {
+        return client.countProjects(manyKeywords, 16);
+    }
+}
@@ -0,0 +1,92 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.stub.SyntheticPayloads;
+import uk.ac.ebi.pride.archive.web.service.model.assay.AssayDetailList;
+import uk.ac.ebi.pride.archive.web.service.model.file.FileDetailList;
+import uk.ac.ebi.pride.archive.web.service.model.project.ProjectSummaryList;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the objectMapper.readValue paths the WsClient uses to map the
+ * list responses of the web service onto the data model.
+ *
+ * readFromStream is the path used by the client, parsing the response body
+ * as it is read. readFromString is the former path that first collected the
+ * body line by line into a String. Run with '-prof gc' to compare the bytes
+ * allocated per response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DeserializationBenchmark {
+
+    public enum ListType {
+        FILES(FileDetailList.class),
+        ASSAYS(AssayDetailList.class),
+        PROJECTS(ProjectSummaryList.class);
+
+        final Class<?> type;
+
+        ListType(Class<?> type) {
+            this.type = type;
+        }
+
+        String payload(int entries) {
+            switch (this) {
+                case FILES:
+                    return SyntheticPayloads.fileDetailList(entries);
+                case ASSAYS:
+                    return SyntheticPayloads.assayDetailList(entries);
+                default:
+                    return SyntheticPayloads.projectSummaryList(entries);
+            }
+        }
+    }
+
+    @Param({"FILES", "ASSAYS", "PROJECTS"})
+    public ListType listType;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int entries;
+
+    private ObjectMapper objectMapper;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        // configured the same way as the mapper of the WsClient
+        objectMapper = new ObjectMapper();
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        body = listType.payload(entries).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object readFromStream() throws Exception {
+        return objectMapper.readValue(new ByteArrayInputStream(body), listType.type);
+    }
+
+    @Benchmark
+    public Object readFromString() throws Exception {
+        // the body is read line by line and joined into a String before it is
+        // parsed, as the client used to do (with the UTF-8 charset rather than
+        // the platform's default, so that the results don't depend on it)
+        BufferedReader br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+        String currentLine;
+        StringBuilder sb = new StringBuilder();
+        while ((currentLine = br.readLine()) != null) {
+            sb.append(currentLine);
+        }
+        return objectMapper.readValue(sb.toString(), listType.type);
+    }
+}
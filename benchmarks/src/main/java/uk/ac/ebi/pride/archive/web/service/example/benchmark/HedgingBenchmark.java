@@ -0,0 +1,78 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.HedgingTransport;
+import uk.ac.ebi.pride.archive.web.service.example.PooledTransport;
+import uk.ac.ebi.pride.archive.web.service.example.Transport;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+import uk.ac.ebi.pride.archive.web.service.example.stub.StubServer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the latency distribution of assay detail requests with and without
+ * hedging against a stub server on which a few percent of the responses stall.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class HedgingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean hedging;
+
+    private StubServer stub;
+    private HedgingTransport hedgingTransport;
+    private WsClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = new StubServer(0);
+        stub.setLatency(2, 2, TimeUnit.MILLISECONDS);
+        stub.setSlowResponses(0.03, 200, TimeUnit.MILLISECONDS);
+        stub.start();
+        // leave room for the hedged requests on top of the callers' requests
+        Transport transport = new PooledTransport(16);
+        if (hedging) {
+            transport = hedgingTransport = new HedgingTransport(transport);
+        }
+        client = new WsClient(stub.getBaseUrl(), transport, null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (hedgingTransport != null) {
+            System.out.printf("%nhedged %d requests, %d hedges answered first%n",
+                    hedgingTransport.getHedgedCount(), hedgingTransport.getHedgeWinCount());
+        }
+        client.close();
+        stub.close();
+    }
+
+    /**
+     * Every request asks for a different assay, so that no two concurrent
+     * requests are coalesced into one.
+     */
+    @State(Scope.Thread)
+    public static class Accessions {
+
+        private static final AtomicInteger threads = new AtomicInteger();
+        private final int thread = threads.incrementAndGet();
+        private int next;
+
+        String next() {
+            return thread + "-" + (next++ % 1000);
+        }
+    }
+
+    @Benchmark
+    public Object getAssayDetails(Accessions accessions) throws Exception {
+        return client.getAssayDetails(accessions.next());
+    }
+}
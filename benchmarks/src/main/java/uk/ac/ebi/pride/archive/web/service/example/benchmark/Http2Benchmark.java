@@ -0,0 +1,88 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.HttpClientTransport;
+import uk.ac.ebi.pride.archive.web.service.example.PooledTransport;
+import uk.ac.ebi.pride.archive.web.service.example.Transport;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the HttpURLConnection based {@link PooledTransport} with the
+ * HTTP/2 {@link HttpClientTransport} for bursts of 1 to 1024 concurrent
+ * assay detail and file list requests.
+ *
+ * Every operation sends one request per caller at once and waits for all of
+ * them. The pooled transport opens a connection per concurrent caller, the
+ * HTTP/2 transport multiplexes all of them over one connection. The number
+ * of connections the server accepted is printed at the end of each trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Http2Benchmark {
+
+    public enum TransportType { URL_CONNECTION, HTTP_CLIENT }
+
+    @Param({"URL_CONNECTION", "HTTP_CLIENT"})
+    public TransportType transport;
+
+    @Param({"1", "16", "256", "1024"})
+    public int callers;
+
+    private Http2StubServer server;
+    private ExecutorService executor;
+    private HttpClientTransport httpClientTransport;
+    private WsClient client;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = new Http2StubServer(5, 20);
+        Transport transport;
+        if (this.transport == TransportType.URL_CONNECTION) {
+            transport = new PooledTransport(callers);
+        } else {
+            httpClientTransport = new HttpClientTransport();
+            transport = httpClientTransport;
+        }
+        executor = Executors.newFixedThreadPool(callers);
+        client = new WsClient(server.getBaseUrl(), transport, executor);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.out.printf("%nconnections: %d%n", server.getConnectionCount());
+        if (httpClientTransport != null) {
+            System.out.printf("HTTP/2 responses: %d, HTTP/1.1 responses: %d%n",
+                    httpClientTransport.getHttp2ResponseCount(), httpClientTransport.getHttp1ResponseCount());
+        }
+        client.close();
+        executor.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public List<Object> concurrentRequests() {
+        List<CompletableFuture<?>> requests = new ArrayList<>(callers);
+        for (int i = 0; i < callers; i++) {
+            // different accessions, so that no requests are coalesced
+            String accession = String.valueOf(next++);
+            requests.add(i % 2 == 0 ? client.getAssayDetailsAsync(accession) : client.getFilesForAssayAsync(accession));
+        }
+        List<Object> results = new ArrayList<>(callers);
+        for (CompletableFuture<?> request : requests) {
+            results.add(request.join());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,103 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.io.ConnectionStatistics;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import uk.ac.ebi.pride.archive.web.service.example.stub.SyntheticPayloads;
+import uk.ac.ebi.pride.archive.web.service.example.stub.StubServer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A stub of the assay endpoints of the web service that speaks HTTP/2 in
+ * addition to HTTP/1.1, for comparing the transports.
+ *
+ * The {@link StubServer} is built on the JDK's HTTP server, which only speaks
+ * HTTP/1.1. This one is built on Jetty and accepts HTTP/2 over plain HTTP
+ * (h2c), both by upgrading an HTTP/1.1 connection and with prior knowledge.
+ */
+class Http2StubServer implements Closeable {
+
+    private final Server server;
+    private final ServerConnector connector;
+    private final ConnectionStatistics statistics = new ConnectionStatistics();
+
+    /**
+     * @param latencyMillis the time to wait before answering a request.
+     * @param filesPerAssay the number of files listed for each assay.
+     */
+    Http2StubServer(long latencyMillis, int filesPerAssay) throws Exception {
+        // enough threads to serve the largest number of concurrent callers over HTTP/1.1
+        QueuedThreadPool threads = new QueuedThreadPool(2048);
+        threads.setDaemon(true);
+        server = new Server(threads);
+        HttpConfiguration configuration = new HttpConfiguration();
+        HTTP2CServerConnectionFactory http2 = new HTTP2CServerConnectionFactory(configuration);
+        http2.setMaxConcurrentStreams(2048);
+        connector = new ServerConnector(server, new HttpConnectionFactory(configuration), http2);
+        connector.setHost("127.0.0.1");
+        connector.setAcceptQueueSize(2048);
+        connector.addBean(statistics);
+        server.addConnector(connector);
+
+        byte[] fileList = SyntheticPayloads.fileDetailList(filesPerAssay).getBytes(StandardCharsets.UTF_8);
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                String path = request.getRequestURI();
+                byte[] body;
+                if (path.contains("/file/list/assay/")) {
+                    body = fileList;
+                } else if (path.contains("/assay/")) {
+                    String accession = path.substring(path.lastIndexOf('/') + 1);
+                    body = SyntheticPayloads.assayDetail(accession).getBytes(StandardCharsets.UTF_8);
+                } else {
+                    response.sendError(404);
+                    baseRequest.setHandled(true);
+                    return;
+                }
+                response.setContentType("application/json;charset=UTF-8");
+                response.setContentLength(body.length);
+                response.getOutputStream().write(body);
+                baseRequest.setHandled(true);
+            }
+        });
+        server.start();
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + connector.getLocalPort() + StubServer.BASE_PATH;
+    }
+
+    /**
+     * @return the number of connections opened by clients.
+     */
+    long getConnectionCount() {
+        return statistics.getConnectionsTotal();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            server.stop();
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
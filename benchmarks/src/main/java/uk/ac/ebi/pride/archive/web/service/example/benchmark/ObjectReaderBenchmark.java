@@ -0,0 +1,73 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.stub.SyntheticPayloads;
+import uk.ac.ebi.pride.archive.web.service.model.assay.AssayDetail;
+import uk.ac.ebi.pride.archive.web.service.model.project.ProjectDetail;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per call overhead of mapping small responses, like single
+ * assay or project lookups, with objectMapper.readValue (the former path of
+ * the WsClient) compared to an ObjectReader built once for the type (the
+ * current path).
+ *
+ * For small payloads looking up the deserializer of the type and setting up
+ * the mapping context make up a noticeable part of each call. Run with
+ * '-prof gc' to compare the bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObjectReaderBenchmark {
+
+    public enum PayloadType {
+        ASSAY(AssayDetail.class),
+        PROJECT(ProjectDetail.class);
+
+        final Class<?> type;
+
+        PayloadType(Class<?> type) {
+            this.type = type;
+        }
+
+        String payload() {
+            return this == ASSAY ? SyntheticPayloads.assayDetail("10000") : SyntheticPayloads.projectDetail("PXD000001");
+        }
+    }
+
+    @Param({"ASSAY", "PROJECT"})
+    public PayloadType payloadType;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader objectReader;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        // configured the same way as the mapper of the WsClient
+        objectMapper = new ObjectMapper();
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        objectReader = objectMapper.reader(payloadType.type);
+        body = payloadType.payload().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object mapperReadValue() throws Exception {
+        return objectMapper.readValue(new ByteArrayInputStream(body), payloadType.type);
+    }
+
+    @Benchmark
+    public Object readerReadValue() throws Exception {
+        return objectReader.readValue(new ByteArrayInputStream(body));
+    }
+}
@@ -0,0 +1,104 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.ebi.pride.archive.web.service.example.Fields;
+import uk.ac.ebi.pride.archive.web.service.example.Transport;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+import uk.ac.ebi.pride.archive.web.service.example.stub.SyntheticPayloads;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares retrieving the complete file details of a project with
+ * retrieving only the file names, and the names and sizes, as well as
+ * streaming the file names (as the command line client does).
+ *
+ * The file list is served from memory, so only the mapping of the response
+ * is measured. Run with '-prof gc' to compare the bytes allocated per list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int files;
+
+    private WsClient client;
+
+    @Setup
+    public void setUp() {
+        byte[] body = SyntheticPayloads.fileDetailList(files).getBytes(StandardCharsets.UTF_8);
+        client = new WsClient(new InMemoryTransport(body));
+    }
+
+    @Benchmark
+    public Object allFields() throws Exception {
+        return client.getFilesForProject("PXD000001");
+    }
+
+    @Benchmark
+    public Object name() throws Exception {
+        return client.getFilesForProject("PXD000001", Fields.NAME);
+    }
+
+    @Benchmark
+    public Object nameAndSize() throws Exception {
+        return client.getFilesForProject("PXD000001", Fields.NAME, Fields.SIZE);
+    }
+
+    @Benchmark
+    public void streamedName(Blackhole blackhole) throws Exception {
+        client.getFilesForProject("PXD000001", blackhole::consume, Fields.NAME);
+    }
+
+    /**
+     * Answers every request with the same body.
+     */
+    static class InMemoryTransport implements Transport {
+
+        private final byte[] body;
+
+        InMemoryTransport(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        public Response get(URL url, Map<String, String> requestHeaders) {
+            InputStream in = new ByteArrayInputStream(body);
+            return new Response() {
+                @Override
+                public int getStatusCode() {
+                    return 200;
+                }
+
+                @Override
+                public String getHeader(String name) {
+                    return name.equalsIgnoreCase("Content-Type") ? "application/json" : null;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return in;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
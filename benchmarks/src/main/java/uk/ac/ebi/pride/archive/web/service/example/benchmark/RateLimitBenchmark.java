@@ -0,0 +1,99 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.HttpStatusException;
+import uk.ac.ebi.pride.archive.web.service.example.PooledTransport;
+import uk.ac.ebi.pride.archive.web.service.example.RateLimitedTransport;
+import uk.ac.ebi.pride.archive.web.service.example.RateLimiter;
+import uk.ac.ebi.pride.archive.web.service.example.Transport;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+import uk.ac.ebi.pride.archive.web.service.example.stub.StubServer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares parallel callers with and without a client side rate limiter
+ * against a stub server that throttles requests above 200 per second.
+ *
+ * The successful and the throttled (429) requests are reported as
+ * secondary results, the wait time statistics of the limiter are printed
+ * at the end of each trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    private static final double SERVER_LIMIT = 200;
+
+    @Param({"false", "true"})
+    public boolean rateLimited;
+
+    private StubServer stub;
+    private RateLimiter rateLimiter;
+    private WsClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = new StubServer(0);
+        stub.setLatency(1, 0, TimeUnit.MILLISECONDS);
+        stub.setRateLimit(SERVER_LIMIT, 20);
+        stub.start();
+        Transport transport = new PooledTransport(8);
+        if (rateLimited) {
+            // stay just below the limit of the server
+            rateLimiter = new RateLimiter(SERVER_LIMIT * 0.95, 10);
+            transport = new RateLimitedTransport(transport, rateLimiter);
+        }
+        client = new WsClient(stub.getBaseUrl(), transport, null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (rateLimiter != null) {
+            System.out.printf("%nwaited for %d of %d requests, average wait %.2f ms, max wait %d ms%n",
+                    rateLimiter.getWaitCount(), rateLimiter.getAcquireCount(),
+                    rateLimiter.getAverageWaitTime(TimeUnit.MILLISECONDS), rateLimiter.getMaxWaitTime(TimeUnit.MILLISECONDS));
+        }
+        client.close();
+        stub.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+
+        private static final AtomicInteger threads = new AtomicInteger();
+        private final int thread = threads.incrementAndGet();
+        private int next;
+
+        public long successes;
+        public long throttled;
+
+        String nextAccession() {
+            // a different assay for every request, so no requests are coalesced
+            return thread + "-" + (next++ % 1000);
+        }
+    }
+
+    @Benchmark
+    public Object getAssayDetails(Outcomes outcomes) throws Exception {
+        try {
+            Object assay = client.getAssayDetails(outcomes.nextAccession());
+            outcomes.successes++;
+            return assay;
+        } catch (HttpStatusException e) {
+            if (e.getStatusCode() != 429) {
+                throw e;
+            }
+            outcomes.throttled++;
+            return e;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.PooledTransport;
+import uk.ac.ebi.pride.archive.web.service.example.RetryPolicy;
+import uk.ac.ebi.pride.archive.web.service.example.RetryingTransport;
+import uk.ac.ebi.pride.archive.web.service.example.Transport;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+import uk.ac.ebi.pride.archive.web.service.example.stub.StubServer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the success rate and the time taken by assay detail requests with
+ * and without retries against a stub server that fails a share of the
+ * requests with '503 Service Unavailable'.
+ *
+ * The successes and failures are reported as secondary results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RetryBenchmark {
+
+    @Param({"false", "true"})
+    public boolean retries;
+
+    @Param({"0.05", "0.2"})
+    public double failureRate;
+
+    private StubServer stub;
+    private RetryingTransport retryingTransport;
+    private WsClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = new StubServer(0);
+        stub.setLatency(2, 0, TimeUnit.MILLISECONDS);
+        stub.setFailures(failureRate, 503, -1);
+        stub.start();
+        Transport transport = new PooledTransport();
+        if (retries) {
+            transport = retryingTransport = new RetryingTransport(transport,
+                    new RetryPolicy(4, 5, 200, TimeUnit.MILLISECONDS, 0.3));
+        }
+        client = new WsClient(stub.getBaseUrl(), transport, null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (retryingTransport != null) {
+            System.out.printf("%nretried %d requests, %d retries denied by the budget%n",
+                    retryingTransport.getRetryCount(), retryingTransport.getBudgetExhaustedCount());
+        }
+        client.close();
+        stub.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+
+        private static final AtomicInteger threads = new AtomicInteger();
+        private final int thread = threads.incrementAndGet();
+        private int next;
+
+        public long successes;
+        public long failures;
+
+        String nextAccession() {
+            // a different assay for every request, so no requests are coalesced
+            return thread + "-" + (next++ % 1000);
+        }
+    }
+
+    @Benchmark
+    public Object getAssayDetails(Outcomes outcomes) {
+        try {
+            Object assay = client.getAssayDetails(outcomes.nextAccession());
+            outcomes.successes++;
+            return assay;
+        } catch (Exception e) {
+            outcomes.failures++;
+            return e;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.PooledTransport;
+import uk.ac.ebi.pride.archive.web.service.example.Transport;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+import uk.ac.ebi.pride.archive.web.service.example.stub.StubServer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the latency distribution of client requests against the stub
+ * server when every request opens a new connection (the former behaviour of
+ * the client) and when connections are kept alive and reused.
+ *
+ * The number of connections the stub server saw per request is printed at
+ * the end of each trial.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    public enum TransportType {
+        PER_CALL, POOLED
+    }
+
+    @Param({"PER_CALL", "POOLED"})
+    public TransportType transportType;
+
+    private StubServer stub;
+    private WsClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = new StubServer(0);
+        stub.start();
+        Transport transport = transportType == TransportType.POOLED ? new PooledTransport() : new PerCallTransport();
+        client = new WsClient(stub.getBaseUrl(), transport, null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.out.printf("%n%s: %d connections for %d requests%n",
+                transportType, stub.getConnectionCount(), stub.getRequestCount());
+        client.close();
+        stub.close();
+    }
+
+    /**
+     * Every request asks for a different assay, so that no two concurrent
+     * requests are coalesced into one.
+     */
+    @State(Scope.Thread)
+    public static class Accessions {
+
+        private static final AtomicInteger threads = new AtomicInteger();
+        private final int thread = threads.incrementAndGet();
+        private int next;
+
+        String next() {
+            return thread + "-" + (next++ % 1000);
+        }
+    }
+
+    @Benchmark
+    public Object getAssayDetails(Accessions accessions) throws Exception {
+        return client.getAssayDetails(accessions.next());
+    }
+
+    /**
+     * Opens a new connection for every request and disconnects it afterwards.
+     */
+    static class PerCallTransport implements Transport {
+
+        @Override
+        public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setRequestMethod("GET");
+            for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+                conn.setRequestProperty(header.getKey(), header.getValue());
+            }
+            int statusCode = conn.getResponseCode();
+            return new Response() {
+                @Override
+                public int getStatusCode() {
+                    return statusCode;
+                }
+
+                @Override
+                public String getHeader(String name) {
+                    return conn.getHeaderField(name);
+                }
+
+                @Override
+                public InputStream getBody() throws IOException {
+                    return new FilterInputStream(conn.getInputStream()) {
+                        @Override
+                        public void close() {
+                            conn.disconnect();
+                        }
+                    };
+                }
+
+                @Override
+                public void close() {
+                    conn.disconnect();
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
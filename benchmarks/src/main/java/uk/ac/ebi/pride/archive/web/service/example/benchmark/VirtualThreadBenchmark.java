@@ -0,0 +1,84 @@
+package uk.ac.ebi.pride.archive.web.service.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.pride.archive.web.service.example.PooledTransport;
+import uk.ac.ebi.pride.archive.web.service.example.VirtualThreads;
+import uk.ac.ebi.pride.archive.web.service.example.WsClient;
+import uk.ac.ebi.pride.archive.web.service.example.stub.StubServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs 10000 concurrent getProjectDetails calls against a stub server that
+ * answers after 50 ms, over up to 1000 connections.
+ *
+ * The calls run on a pool of 10000 platform threads, on 200 platform threads
+ * (a typical bounded pool) or on one virtual thread each. The virtual threads
+ * need Java 21, on older JVMs the VIRTUAL variant falls back to platform
+ * threads. The stub server itself uses virtual threads if it can.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+// the JDK keeps only 5 idle connections per host by default, the others would be closed after every call
+@Fork(value = 1, jvmArgsAppend = {"-Xss512k", "-Dhttp.maxConnections=1000"})
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+    private static final int CALLS = 10000;
+
+    public enum Threads { PLATFORM_200, PLATFORM_10000, VIRTUAL }
+
+    @Param({"PLATFORM_200", "PLATFORM_10000", "VIRTUAL"})
+    public Threads threads;
+
+    private StubServer stub;
+    private ExecutorService executor;
+    private WsClient client;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        stub = new StubServer(0);
+        stub.setLatency(50, 0, TimeUnit.MILLISECONDS);
+        stub.start();
+        switch (threads) {
+            case PLATFORM_200:
+                executor = Executors.newFixedThreadPool(200);
+                break;
+            case PLATFORM_10000:
+                executor = Executors.newFixedThreadPool(CALLS);
+                break;
+            default:
+                executor = VirtualThreads.newExecutor("benchmark");
+        }
+        client = new WsClient(stub.getBaseUrl(), new PooledTransport(1000), executor);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        executor.shutdownNow();
+        stub.close();
+    }
+
+    @Benchmark
+    public List<Object> concurrentProjectDetails() {
+        List<CompletableFuture<?>> calls = new ArrayList<>(CALLS);
+        for (int i = 0; i < CALLS; i++) {
+            // different accessions, so that no calls are coalesced
+            calls.add(client.getProjectDetailsAsync("PXD" + (next++ % (2 * CALLS))));
+        }
+        List<Object> results = new ArrayList<>(CALLS);
+        for (CompletableFuture<?> call : calls) {
+            results.add(call.join());
+        }
+        return results;
+    }
+}
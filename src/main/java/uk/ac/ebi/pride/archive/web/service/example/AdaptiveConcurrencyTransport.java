@@ -0,0 +1,272 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Transport} that limits the number of requests of another transport
+ * in flight, and adapts that limit to what the service can currently handle.
+ *
+ * The limit is additively increased (by one per limit's worth of successful
+ * requests) as long as the latency of the requests stays close to the lowest
+ * latency observed, i.e. the latency of the service without any queueing. As
+ * soon as the latency rises above that by a tolerance factor, or a request
+ * fails or is throttled, the limit is cut back multiplicatively (AIMD). This
+ * way a fan-out uses as many requests in parallel as the service handles at
+ * the time, without a fixed pool size that is too low at night and too high
+ * at peak times.
+ *
+ * A request holds its place until its response is closed. Requests beyond the
+ * limit wait until a place becomes free.
+ */
+public class AdaptiveConcurrencyTransport implements Transport {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 4;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+
+    // a request is considered delayed by queueing above this multiple of the lowest latency
+    private static final double LATENCY_TOLERANCE = 2.0;
+    // the factor the limit is cut back by on congestion
+    private static final double BACKOFF_RATIO = 0.9;
+    // the number of requests after which the lowest latency is re-measured, see sample()
+    private static final int LATENCY_WINDOW = 100;
+
+    private final Transport delegate;
+    private final int minLimit;
+    private final int maxLimit;
+    private final NanoClock clock;
+
+    // the lock is held only to update the state, never while a request is sent
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition belowLimit = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    // requests started before the last decrease don't cause another decrease
+    private long startedCount;
+    private long lastDecrease;
+    private long noLoadLatencyNanos = Long.MAX_VALUE;
+    private long windowMinLatencyNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    private final AtomicLong decreaseCount = new AtomicLong();
+
+    /**
+     * Starts with {@link #DEFAULT_INITIAL_LIMIT} requests in flight and adapts
+     * the limit between {@link #DEFAULT_MIN_LIMIT} and {@link #DEFAULT_MAX_LIMIT}.
+     *
+     * @param delegate the Transport to send the requests with.
+     */
+    public AdaptiveConcurrencyTransport(Transport delegate) {
+        this(delegate, DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    /**
+     * @param delegate the Transport to send the requests with.
+     * @param initialLimit the number of requests allowed in flight at first.
+     * @param minLimit the lowest the limit is cut back to.
+     * @param maxLimit the highest the limit is increased to.
+     */
+    public AdaptiveConcurrencyTransport(Transport delegate, int initialLimit, int minLimit, int maxLimit) {
+        this(delegate, initialLimit, minLimit, maxLimit, NanoClock.SYSTEM);
+    }
+
+    /**
+     * @param delegate the Transport to send the requests with.
+     * @param initialLimit the number of requests allowed in flight at first.
+     * @param minLimit the lowest the limit is cut back to.
+     * @param maxLimit the highest the limit is increased to.
+     * @param clock the clock to measure the latency of the requests with.
+     */
+    AdaptiveConcurrencyTransport(Transport delegate, int initialLimit, int minLimit, int maxLimit, NanoClock clock) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits have to satisfy 1 <= minLimit <= initialLimit <= maxLimit: "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        this.delegate = delegate;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.clock = clock;
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+        long sequence = acquire(url);
+        long start = clock.nanoTime();
+        Response response;
+        try {
+            response = delegate.get(url, requestHeaders);
+        } catch (IOException | RuntimeException e) {
+            release(sequence, -1);
+            throw e;
+        }
+        int status = response.getStatusCode();
+        boolean congested = status == 429 || status >= 500;
+        // the latency up to the response headers is where queueing on the service shows
+        return new LimitedResponse(response, sequence, congested ? -1 : clock.nanoTime() - start);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * @return the number of requests currently allowed in flight.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests currently in flight.
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of times the limit was cut back.
+     */
+    public long getDecreaseCount() {
+        return decreaseCount.get();
+    }
+
+    /**
+     * Waits until the request can be sent within the limit.
+     *
+     * @return the sequence number of the request.
+     */
+    private long acquire(URL url) throws InterruptedIOException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                belowLimit.await();
+            }
+            inFlight++;
+            return ++startedCount;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send " + url);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the place of a completed request and adapts the limit.
+     *
+     * @param sequence the sequence number of the request.
+     * @param latencyNanos the latency of the request, -1 if it failed.
+     */
+    private void release(long sequence, long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (latencyNanos < 0) {
+                decrease(sequence);
+            } else {
+                sample(latencyNanos);
+                if (latencyNanos > noLoadLatencyNanos * LATENCY_TOLERANCE) {
+                    decrease(sequence);
+                } else if (inFlight + 1 >= (int) limit / 2) {
+                    // only grow a limit that is actually used, so an idle client
+                    // doesn't build up a limit it never verified the service can handle
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+            belowLimit.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease(long sequence) {
+        // all the requests in flight during congestion see it, but the limit
+        // is only cut back once per round of requests
+        if (sequence <= lastDecrease) {
+            return;
+        }
+        lastDecrease = startedCount;
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        decreaseCount.incrementAndGet();
+    }
+
+    private void sample(long latencyNanos) {
+        noLoadLatencyNanos = Math.min(noLoadLatencyNanos, latencyNanos);
+        windowMinLatencyNanos = Math.min(windowMinLatencyNanos, latencyNanos);
+        if (++windowSamples >= LATENCY_WINDOW) {
+            // at the minimum limit there is no queueing caused by us, so if the service got
+            // slower by itself its current latency becomes the new reference, otherwise the
+            // limit would stay at the minimum for good
+            if (limit <= minLimit) {
+                noLoadLatencyNanos = windowMinLatencyNanos;
+            }
+            windowMinLatencyNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    /**
+     * A response that frees its place within the limit when closed.
+     */
+    private class LimitedResponse implements Response {
+
+        private final Response response;
+        private final long sequence;
+        private final long latencyNanos;
+        private boolean closed;
+
+        LimitedResponse(Response response, long sequence, long latencyNanos) {
+            this.response = response;
+            this.sequence = sequence;
+            this.latencyNanos = latencyNanos;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return response.getHeader(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                response.close();
+            } finally {
+                release(sequence, latencyNanos);
+            }
+        }
+    }
+}
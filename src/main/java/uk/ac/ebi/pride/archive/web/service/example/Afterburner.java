@@ -0,0 +1,40 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Registers Jackson's Afterburner module with an object mapper, if it is on
+ * the class path.
+ *
+ * Afterburner generates bytecode that creates the beans of the data model
+ * and sets their properties directly, instead of through reflection, and
+ * speeds up parsing their property names. The module is an optional
+ * dependency of the client, so it is looked up by reflection.
+ */
+final class Afterburner {
+
+    private static final String MODULE_CLASS = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+
+    private Afterburner() {
+    }
+
+    /**
+     * Note that a module can't be removed from a mapper again, so the mapper
+     * should not be used if the module turns out not to work.
+     *
+     * @param mapper the mapper to register the module with.
+     * @return true if the module was registered, false if it is not available.
+     */
+    static boolean register(ObjectMapper mapper) {
+        Module module;
+        try {
+            module = (Module) Class.forName(MODULE_CLASS, true, Afterburner.class.getClassLoader())
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return false;
+        }
+        mapper.registerModule(module);
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+/**
+ * The outcome of the lookup of a single accession in a batch lookup, e.g.
+ * {@link WsClient#getProjectDetails(java.util.Collection, int)}.
+ *
+ * Each accession either succeeded with a value or failed with the exception
+ * its request failed with, so a failure of some lookups does not abort the
+ * whole batch.
+ *
+ * @param <T> the type of the looked up details.
+ */
+public class BatchResult<T> {
+
+    private final String accession;
+    private final T value;
+    private final Exception failure;
+
+    private BatchResult(String accession, T value, Exception failure) {
+        this.accession = accession;
+        this.value = value;
+        this.failure = failure;
+    }
+
+    static <T> BatchResult<T> success(String accession, T value) {
+        return new BatchResult<>(accession, value, null);
+    }
+
+    static <T> BatchResult<T> failure(String accession, Exception failure) {
+        return new BatchResult<>(accession, null, failure);
+    }
+
+    public String getAccession() {
+        return accession;
+    }
+
+    /**
+     * @return true if the details of the accession were retrieved.
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * @return the details of the accession, or null if the lookup failed.
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return the exception the lookup failed with, e.g. an
+     *         {@link HttpStatusException} with status 404 for an unknown
+     *         accession, or null if it succeeded.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return accession + (isSuccess() ? ": " + value : " failed: " + failure);
+    }
+}
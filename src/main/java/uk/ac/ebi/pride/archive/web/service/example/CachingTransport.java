@@ -0,0 +1,368 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Transport} that keeps successful responses of another transport
+ * in memory, so that repeated requests for the same URL (i.e. the same
+ * endpoint and accession or query) are answered without a round trip to the
+ * web service.
+ *
+ * Each entry expires after the time-to-live configured for its
+ * {@link Endpoint}. The cache is bounded by the total size of the cached
+ * response bodies: once that is exceeded, the least recently used entries are
+ * evicted. Responses larger than the maximum size of an entry are not cached,
+ * but passed on as a stream. Responses are cached as bytes rather than as
+ * mapped objects, so every request still gets its own instance of the
+ * (mutable) model objects.
+ *
+ * The transport is meant for library use, e.g. by batch jobs that look up
+ * the same projects repeatedly; a single run of the command line client
+ * requests every URL only once, so it does not use it. The transport should
+ * be wrapped around any rate or concurrency limiting transport, so that a
+ * hit takes neither a token nor a slot, and its latency is not mistaken for
+ * a round trip to the service.
+ */
+public class CachingTransport implements Transport {
+
+    // the response headers kept with a cached body
+    private static final String[] CACHED_HEADERS = {"Content-Type", "Content-Encoding", "ETag", "Last-Modified"};
+
+    // unless configured otherwise, a single response may take up this part of the cache
+    private static final int DEFAULT_ENTRY_WEIGHT_DIVISOR = 8;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Transport delegate;
+    private final long maxWeight;
+    private final long maxEntryWeight;
+    private final long defaultTimeToLiveNanos;
+    private final Map<Endpoint, Long> timeToLiveNanos;
+
+    // guards the entries and their weight, a lock rather than synchronized so that
+    // virtual threads don't pin their carrier thread while waiting for it
+    private final ReentrantLock lock = new ReentrantLock();
+    // access ordered, so that iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param delegate the Transport to send requests with on a cache miss.
+     * @param maxWeight the maximum total size in bytes of the cached response bodies.
+     * @param timeToLive how long responses are cached.
+     * @param unit the unit of the timeToLive.
+     */
+    public CachingTransport(Transport delegate, long maxWeight, long timeToLive, TimeUnit unit) {
+        this(delegate, maxWeight, timeToLive, unit, Collections.<Endpoint, Long>emptyMap());
+    }
+
+    /**
+     * @param delegate the Transport to send requests with on a cache miss.
+     * @param maxWeight the maximum total size in bytes of the cached response bodies.
+     * @param defaultTimeToLive how long responses are cached, unless configured
+     *                          differently for their endpoint.
+     * @param unit the unit of all time-to-live values.
+     * @param endpointTimeToLive the time-to-live for specific endpoints. A value
+     *                           of 0 disables caching for the endpoint.
+     */
+    public CachingTransport(Transport delegate, long maxWeight, long defaultTimeToLive, TimeUnit unit,
+                            Map<Endpoint, Long> endpointTimeToLive) {
+        this(delegate, maxWeight, maxWeight / DEFAULT_ENTRY_WEIGHT_DIVISOR, defaultTimeToLive, unit, endpointTimeToLive);
+    }
+
+    /**
+     * @param delegate the Transport to send requests with on a cache miss.
+     * @param maxWeight the maximum total size in bytes of the cached response bodies.
+     * @param maxEntryWeight the maximum size in bytes of a single cached response
+     *                       body. Larger bodies are passed on without being cached.
+     * @param defaultTimeToLive how long responses are cached, unless configured
+     *                          differently for their endpoint.
+     * @param unit the unit of all time-to-live values.
+     * @param endpointTimeToLive the time-to-live for specific endpoints. A value
+     *                           of 0 disables caching for the endpoint.
+     */
+    public CachingTransport(Transport delegate, long maxWeight, long maxEntryWeight, long defaultTimeToLive,
+                            TimeUnit unit, Map<Endpoint, Long> endpointTimeToLive) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("maxWeight must not be negative: " + maxWeight);
+        }
+        if (maxEntryWeight < 0 || maxEntryWeight > maxWeight) {
+            throw new IllegalArgumentException("maxEntryWeight must be between 0 and maxWeight: " + maxEntryWeight);
+        }
+        this.delegate = delegate;
+        this.maxWeight = maxWeight;
+        this.maxEntryWeight = maxEntryWeight;
+        this.defaultTimeToLiveNanos = unit.toNanos(defaultTimeToLive);
+        this.timeToLiveNanos = new EnumMap<>(Endpoint.class);
+        for (Map.Entry<Endpoint, Long> ttl : endpointTimeToLive.entrySet()) {
+            this.timeToLiveNanos.put(ttl.getKey(), unit.toNanos(ttl.getValue()));
+        }
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+        long timeToLive = timeToLiveFor(url);
+        if (timeToLive <= 0) {
+            return delegate.get(url, requestHeaders);
+        }
+
+        String key = url.toString();
+        Entry cached = lookup(key);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            return new CachedResponse(cached.headers, cached.body);
+        }
+        missCount.incrementAndGet();
+
+        Response response = delegate.get(url, requestHeaders);
+        if (response.getStatusCode() != 200) {
+            return response;
+        }
+        return readAndStore(key, timeToLive, response);
+    }
+
+    @Override
+    public void close() throws IOException {
+        clear();
+        delegate.close();
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests answered from the cache.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of cacheable requests that had to be sent to the service.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of entries evicted to stay within the maximum weight.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return the number of responses currently cached.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the total size in bytes of the currently cached response bodies.
+     */
+    public long getWeight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long timeToLiveFor(URL url) {
+        Long timeToLive = timeToLiveNanos.get(Endpoint.of(url));
+        return timeToLive != null ? timeToLive : defaultTimeToLiveNanos;
+    }
+
+    private Entry lookup(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.expires >= 0) {
+                entries.remove(key);
+                weight -= entry.body.length;
+                return null;
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(String key, Entry entry) {
+        if (entry.body.length > maxEntryWeight) {
+            return;
+        }
+        lock.lock();
+        try {
+            Entry replaced = entries.put(key, entry);
+            if (replaced != null) {
+                weight -= replaced.body.length;
+            }
+            weight += entry.body.length;
+            // evict the least recently used entries until the cache fits again
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (weight > maxWeight && iterator.hasNext()) {
+                Entry eldest = iterator.next();
+                iterator.remove();
+                weight -= eldest.body.length;
+                evictionCount.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the body of a response into memory and stores it in the cache.
+     * Bodies larger than the maximum entry size are passed on as a stream,
+     * after reading at most one byte more than that size.
+     */
+    private Response readAndStore(String key, long timeToLive, Response response) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        for (String name : CACHED_HEADERS) {
+            String value = response.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+
+        InputStream in = response.getBody();
+        if (contentLength(response) > maxEntryWeight) {
+            // don't bother reading what will not be cached anyway
+            return new CachedResponse(headers, in, response);
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[BUFFER_SIZE];
+        int read;
+        try {
+            // read no more than is needed to tell that the body is too large
+            while ((read = in.read(chunk, 0, (int) Math.min(chunk.length, maxEntryWeight + 1 - buffer.size()))) != -1) {
+                buffer.write(chunk, 0, read);
+                if (buffer.size() > maxEntryWeight) {
+                    // replay what we have read so far, followed by the rest of the body
+                    InputStream body = new SequenceInputStream(new ByteArrayInputStream(buffer.toByteArray()), in);
+                    return new CachedResponse(headers, body, response);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+        response.close();
+
+        byte[] body = buffer.toByteArray();
+        store(key, new Entry(headers, body, System.nanoTime() + timeToLive));
+        return new CachedResponse(headers, body);
+    }
+
+    /**
+     * @return the length of the body announced by the response, or -1 if it is unknown.
+     */
+    private static long contentLength(Response response) {
+        String value = response.getHeader("Content-Length");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static class Entry {
+
+        final Map<String, String> headers;
+        final byte[] body;
+        final long expires;
+
+        Entry(Map<String, String> headers, byte[] body, long expires) {
+            this.headers = headers;
+            this.body = body;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * A successful response served from memory, or the remainder of a
+     * response that was too large to be cached.
+     */
+    private static class CachedResponse implements Response {
+
+        private final Map<String, String> headers;
+        private final InputStream body;
+        private final Response origin;
+
+        CachedResponse(Map<String, String> headers, byte[] body) {
+            this(headers, new ByteArrayInputStream(body), null);
+        }
+
+        CachedResponse(Map<String, String> headers, InputStream body, Response origin) {
+            this.headers = headers;
+            this.body = body;
+            this.origin = origin;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+            return origin != null ? origin.getHeader(name) : null;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (origin != null) {
+                origin.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A circuit breaker, which stops requests to a service that is down from
+ * being sent at all, instead of letting each of them wait for a timeout.
+ *
+ * The breaker starts CLOSED, i.e. requests pass. After a number of
+ * consecutive failures it OPENs and rejects all requests for a while. After
+ * that time it is HALF_OPEN: a single probe request is let through, while
+ * all other requests are still rejected. If the probe succeeds the breaker
+ * closes again, otherwise it stays open for another while.
+ *
+ * Callers ask {@link #tryAcquire()} before sending a request and report its
+ * outcome with {@link #onSuccess(long)} or {@link #onFailure(long)}, passing
+ * the ticket they acquired. Each change of the state starts a new generation
+ * of tickets, and outcomes reported with a ticket of an earlier generation
+ * are ignored: a request sent while the breaker was closed may complete
+ * after it opened, and must neither close it again nor count against the
+ * probe of the half open breaker.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Returned by {@link #tryAcquire()} if the request must not be sent.
+     */
+    public static final long REJECTED = -1;
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    // incremented with each change of the state
+    private long generation;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong openedCount = new AtomicLong();
+
+    /**
+     * @param failureThreshold the number of consecutive failures that opens the breaker.
+     * @param openTime how long the breaker stays open before it lets a probe through.
+     * @param unit the unit of the openTime.
+     */
+    public CircuitBreaker(int failureThreshold, long openTime, TimeUnit unit) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold has to be positive: " + failureThreshold);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = unit.toNanos(openTime);
+    }
+
+    /**
+     * @return the ticket to report the outcome of the request with, by
+     *         onSuccess(), onFailure() or onIgnored(), or {@link #REJECTED}
+     *         if the request must not be sent.
+     */
+    public long tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                changeState(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                return generation;
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return generation;
+            }
+            rejectedCount.incrementAndGet();
+            return REJECTED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reports a successful request, which closes a half open breaker.
+     *
+     * @param ticket the ticket acquired for the request.
+     */
+    public void onSuccess(long ticket) {
+        lock.lock();
+        try {
+            if (ticket != generation) {
+                return;
+            }
+            consecutiveFailures = 0;
+            if (state == State.HALF_OPEN) {
+                probeInFlight = false;
+                changeState(State.CLOSED);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reports a failed request, which may open the breaker.
+     *
+     * @param ticket the ticket acquired for the request.
+     */
+    public void onFailure(long ticket) {
+        lock.lock();
+        try {
+            if (ticket != generation) {
+                return;
+            }
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN) {
+                probeInFlight = false;
+                open();
+            } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reports a request that was acquired, but whose outcome does not tell
+     * whether the service is up, e.g. because the caller was interrupted.
+     *
+     * @param ticket the ticket acquired for the request.
+     */
+    public void onIgnored(long ticket) {
+        lock.lock();
+        try {
+            if (ticket == generation && state == State.HALF_OPEN) {
+                probeInFlight = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                return State.HALF_OPEN;
+            }
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param unit the unit of the result.
+     * @return the time until an open breaker lets a probe through, 0 if it already does.
+     */
+    public long getRemainingOpenTime(TimeUnit unit) {
+        lock.lock();
+        try {
+            if (state != State.OPEN) {
+                return 0;
+            }
+            return unit.convert(Math.max(0, openNanos - (System.nanoTime() - openedAt)), TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests rejected by the breaker.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * @return the number of times the breaker opened.
+     */
+    public long getOpenedCount() {
+        return openedCount.get();
+    }
+
+    private void open() {
+        changeState(State.OPEN);
+        openedAt = System.nanoTime();
+        openedCount.incrementAndGet();
+    }
+
+    private void changeState(State newState) {
+        state = newState;
+        generation++;
+        consecutiveFailures = 0;
+    }
+}
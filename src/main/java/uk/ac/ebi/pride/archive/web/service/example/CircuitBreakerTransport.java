@@ -0,0 +1,100 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Transport} that guards the requests of another transport with a
+ * {@link CircuitBreaker} per {@link Endpoint}.
+ *
+ * When one endpoint family goes down, e.g. the file lists, its requests fail
+ * fast with a {@link CircuitOpenException} instead of blocking threads until
+ * they time out, while the requests to the healthy endpoints go on as usual.
+ * Requests count as failed if they throw an IOException or are answered with
+ * a 5xx status. Throttled (429) and not found (404) requests show that the
+ * endpoint is up, so they count as successful.
+ */
+public class CircuitBreakerTransport implements Transport {
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_SECONDS = 30;
+
+    private final Transport delegate;
+    private final Map<Endpoint, CircuitBreaker> breakers = new EnumMap<>(Endpoint.class);
+
+    /**
+     * Opens the breaker of an endpoint after {@link #DEFAULT_FAILURE_THRESHOLD}
+     * consecutive failures, for {@link #DEFAULT_OPEN_SECONDS} seconds.
+     *
+     * @param delegate the Transport to send the requests with.
+     */
+    public CircuitBreakerTransport(Transport delegate) {
+        this(delegate, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param delegate the Transport to send the requests with.
+     * @param failureThreshold the number of consecutive failures that opens the breaker of an endpoint.
+     * @param openTime how long a breaker stays open before it lets a probe request through.
+     * @param unit the unit of the openTime.
+     */
+    public CircuitBreakerTransport(Transport delegate, int failureThreshold, long openTime, TimeUnit unit) {
+        this.delegate = delegate;
+        for (Endpoint endpoint : Endpoint.values()) {
+            breakers.put(endpoint, new CircuitBreaker(failureThreshold, openTime, unit));
+        }
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+        Endpoint endpoint = Endpoint.of(url);
+        CircuitBreaker breaker = breakers.get(endpoint);
+        long ticket = breaker.tryAcquire();
+        if (ticket == CircuitBreaker.REJECTED) {
+            throw new CircuitOpenException(url, endpoint, breaker.getRemainingOpenTime(TimeUnit.MILLISECONDS));
+        }
+
+        Response response;
+        try {
+            response = delegate.get(url, requestHeaders);
+        } catch (InterruptedIOException e) {
+            if (e instanceof SocketTimeoutException) {
+                breaker.onFailure(ticket);
+            } else {
+                // the caller gave up, which tells nothing about the endpoint
+                breaker.onIgnored(ticket);
+            }
+            throw e;
+        } catch (IOException e) {
+            breaker.onFailure(ticket);
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.onIgnored(ticket);
+            throw e;
+        }
+        if (response.getStatusCode() >= 500) {
+            breaker.onFailure(ticket);
+        } else {
+            breaker.onSuccess(ticket);
+        }
+        return response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * @param endpoint the endpoint family.
+     * @return the circuit breaker guarding the requests to the endpoint.
+     */
+    public CircuitBreaker getCircuitBreaker(Endpoint endpoint) {
+        return breakers.get(endpoint);
+    }
+}
@@ -0,0 +1,45 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker of its
+ * endpoint is open, i.e. while the endpoint is considered to be down.
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final URL url;
+    private final Endpoint endpoint;
+    private final long retryAfterMillis;
+
+    /**
+     * @param url the URL of the request that was not sent.
+     * @param endpoint the endpoint whose circuit breaker is open.
+     * @param retryAfterMillis the time until the breaker lets a request probe the endpoint again.
+     */
+    public CircuitOpenException(URL url, Endpoint endpoint, long retryAfterMillis) {
+        super("Circuit breaker for " + endpoint + " requests is open (" + url + ")");
+        this.url = url;
+        this.endpoint = endpoint;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the time in milliseconds until the breaker lets a request probe
+     *         the endpoint again, 0 if a probe is already in flight.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,223 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A {@link Transport} that asks the service for compressed responses and
+ * transparently decompresses them.
+ *
+ * Requests are sent with 'Accept-Encoding: gzip, deflate'. Compressed bodies
+ * are inflated while they are being read, so the JSON parser consumes the
+ * decompressed data as it arrives and the inflated body is never held in
+ * memory as a whole. Responses returned by this transport never carry a
+ * 'Content-Encoding' header.
+ *
+ * Transports that store responses on disk, like the {@link DiskCacheTransport},
+ * should be wrapped by this one, so they keep the smaller compressed bodies.
+ */
+public class CompressingTransport implements Transport {
+
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Transport delegate;
+
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+
+    /**
+     * @param delegate the Transport to send the requests with.
+     */
+    public CompressingTransport(Transport delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+        Map<String, String> headers = requestHeaders;
+        if (!containsHeader(requestHeaders, "Accept-Encoding")) {
+            headers = new HashMap<>(requestHeaders);
+            headers.put("Accept-Encoding", ACCEPT_ENCODING);
+        }
+        return new DecompressingResponse(delegate.get(url, headers));
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * @return the number of response body bytes received from the delegate,
+     *         i.e. as transferred by the service.
+     */
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    /**
+     * @return the number of response body bytes after decompression.
+     */
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    private static boolean containsHeader(Map<String, String> headers, String name) {
+        for (String header : headers.keySet()) {
+            if (header.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Inflates a 'deflate' encoded body. The encoding is meant to be zlib
+     * wrapped, but some servers send raw deflate data, so we check for the
+     * zlib header first.
+     */
+    private static InputStream inflate(InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, 2);
+        byte[] header = new byte[2];
+        int read = 0;
+        int n;
+        while (read < 2 && (n = pushback.read(header, read, 2 - read)) != -1) {
+            read += n;
+        }
+        pushback.unread(header, 0, read);
+        int cmf = header[0] & 0xFF;
+        int flg = header[1] & 0xFF;
+        boolean zlib = read == 2 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(pushback, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // an Inflater passed in is not released by the stream itself
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * A response whose body is decompressed according to its 'Content-Encoding'.
+     */
+    private class DecompressingResponse implements Response {
+
+        private final Response response;
+        private final String encoding;
+        private InputStream body;
+
+        DecompressingResponse(Response response) {
+            this.response = response;
+            String contentEncoding = response.getHeader("Content-Encoding");
+            this.encoding = contentEncoding != null ? contentEncoding.trim().toLowerCase(Locale.ROOT) : "identity";
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (name.equalsIgnoreCase("Content-Encoding")) {
+                return null;
+            }
+            if (name.equalsIgnoreCase("Content-Length") && !encoding.equals("identity")) {
+                // the length of the compressed body
+                return null;
+            }
+            return response.getHeader(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                // the decompressing streams read the header on creation, so we only
+                // create them once the body is actually read
+                InputStream wire = new CountingInputStream(response.getBody(), wireBytes);
+                switch (encoding) {
+                    case "gzip":
+                    case "x-gzip":
+                        body = new CountingInputStream(new GZIPInputStream(wire, BUFFER_SIZE), decodedBytes);
+                        break;
+                    case "deflate":
+                        body = new CountingInputStream(inflate(wire), decodedBytes);
+                        break;
+                    case "identity":
+                        body = new CountingInputStream(wire, decodedBytes);
+                        break;
+                    default:
+                        throw new IOException("Unsupported Content-Encoding: " + encoding);
+                }
+            }
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (body != null) {
+                    body.close();
+                }
+            } finally {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * Adds the number of bytes read through it to a counter.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong count;
+
+        CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count.addAndGet(skipped);
+            return skipped;
+        }
+    }
+}
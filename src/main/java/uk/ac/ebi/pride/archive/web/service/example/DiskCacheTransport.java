@@ -0,0 +1,444 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Transport} that keeps the responses of another transport in a
+ * cache directory on disk, so they survive restarts of the JVM.
+ *
+ * Responses are only stored if the service sent an 'ETag' or 'Last-Modified'
+ * header. Subsequent requests for the same URL are sent as conditional
+ * requests ('If-None-Match'/'If-Modified-Since'): if the service answers with
+ * '304 Not Modified', the body is served from disk instead of being
+ * downloaded again.
+ *
+ * Several processes can share the same cache directory: new entries are
+ * written to a temporary file while the body is being read and then moved
+ * into place atomically, so readers either see the complete old or the
+ * complete new entry, never a partially written one.
+ *
+ * Failing to write to the cache directory never fails a request, the
+ * response is then just passed on without being stored.
+ */
+public class DiskCacheTransport implements Transport {
+
+    // identifies the format of the cache files
+    private static final int MAGIC = 0x50524431;
+
+    // when a body is closed before it was read completely, we read up to this
+    // many remaining bytes to still complete the entry, otherwise we drop it
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+    // the response headers stored with a cached body
+    private static final String[] CACHED_HEADERS = {"Content-Type", "Content-Encoding", "ETag", "Last-Modified"};
+
+    private final Transport delegate;
+    private final Path directory;
+
+    private final AtomicLong revalidatedCount = new AtomicLong();
+    private final AtomicLong downloadCount = new AtomicLong();
+
+    /**
+     * @param delegate the Transport to send the (conditional) requests with.
+     * @param directory the cache directory, which is created if needed.
+     * @throws IOException in case the cache directory could not be created.
+     */
+    public DiskCacheTransport(Transport delegate, Path directory) throws IOException {
+        this.delegate = delegate;
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+        Path file = fileFor(url);
+        // the entry is opened before the request is sent, so that it can't be
+        // replaced by another process between revalidation and reading the body
+        CachedEntry entry = open(file, url);
+
+        Map<String, String> headers = requestHeaders;
+        if (entry != null) {
+            headers = new HashMap<>(requestHeaders);
+            String etag = entry.headers.get("ETag");
+            String lastModified = entry.headers.get("Last-Modified");
+            if (etag != null) {
+                headers.put("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                headers.put("If-Modified-Since", lastModified);
+            }
+        }
+
+        Response response;
+        try {
+            response = delegate.get(url, headers);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(entry);
+            throw e;
+        }
+
+        if (entry != null && response.getStatusCode() == 304) {
+            response.close();
+            revalidatedCount.incrementAndGet();
+            return entry;
+        }
+        closeQuietly(entry);
+
+        if (response.getStatusCode() == 200
+                && (response.getHeader("ETag") != null || response.getHeader("Last-Modified") != null)) {
+            StoringResponse storing;
+            try {
+                storing = new StoringResponse(response, url, file);
+            } catch (IOException e) {
+                // e.g. the cache directory was removed or is not writable, that
+                // doesn't make the response any less usable, it just isn't stored
+                return response;
+            }
+            downloadCount.incrementAndGet();
+            return storing;
+        }
+        return response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * @return the number of requests answered from disk after the service
+     *         confirmed the cached body was still current.
+     */
+    public long getRevalidatedCount() {
+        return revalidatedCount.get();
+    }
+
+    /**
+     * @return the number of response bodies downloaded into the cache.
+     */
+    public long getDownloadCount() {
+        return downloadCount.get();
+    }
+
+    private Path fileFor(URL url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(url.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2 + 6);
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return directory.resolve(name.append(".cache").toString());
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Opens a cache entry and reads its headers.
+     *
+     * @return the entry, positioned at the start of the body, or null if
+     *         there is no (readable) entry for the URL.
+     */
+    private static CachedEntry open(Path file, URL url) {
+        DataInputStream in;
+        try {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        } catch (IOException e) {
+            // usually there just is no entry for the URL yet
+            return null;
+        }
+        try {
+            if (in.readInt() != MAGIC || !in.readUTF().equals(url.toString())) {
+                in.close();
+                return null;
+            }
+            Map<String, String> headers = new HashMap<>();
+            int headerCount = in.readInt();
+            for (int i = 0; i < headerCount; i++) {
+                headers.put(in.readUTF(), in.readUTF());
+            }
+            return new CachedEntry(headers, in);
+        } catch (IOException e) {
+            // an entry written by an incompatible version, we simply ignore it
+            closeQuietly(in);
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // a left over temporary file doesn't harm the cache
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // nothing we could do about it
+            }
+        }
+    }
+
+    /**
+     * A response served from a cache entry on disk.
+     */
+    private static class CachedEntry implements Response {
+
+        private final Map<String, String> headers;
+        private final InputStream body;
+
+        CachedEntry(Map<String, String> headers, InputStream body) {
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    /**
+     * A response whose body is copied into a new cache entry while it is
+     * being read. The entry only replaces the previous one once the body
+     * has been read completely.
+     */
+    private class StoringResponse implements Response {
+
+        private final Response response;
+        private final Path file;
+        private final Path temporary;
+        private final OutputStream out;
+        private InputStream body;
+        private boolean complete;
+
+        /**
+         * Creates the temporary entry and writes its headers.
+         *
+         * @throws IOException in case the entry could not be created, in which
+         *         case no temporary file is left behind.
+         */
+        StoringResponse(Response response, URL url, Path file) throws IOException {
+            this.response = response;
+            this.file = file;
+            this.temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            DataOutputStream header = null;
+            try {
+                header = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)));
+                Map<String, String> headers = new HashMap<>();
+                for (String name : CACHED_HEADERS) {
+                    String value = response.getHeader(name);
+                    if (value != null) {
+                        headers.put(name, value);
+                    }
+                }
+                header.writeInt(MAGIC);
+                header.writeUTF(url.toString());
+                header.writeInt(headers.size());
+                for (Map.Entry<String, String> entry : headers.entrySet()) {
+                    header.writeUTF(entry.getKey());
+                    header.writeUTF(entry.getValue());
+                }
+            } catch (IOException | RuntimeException e) {
+                closeQuietly(header);
+                deleteQuietly(temporary);
+                throw e;
+            }
+            this.out = header;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return response.getHeader(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(response.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b == -1) {
+                            commit();
+                        } else {
+                            store(b);
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int read = super.read(buffer, offset, length);
+                        if (read == -1) {
+                            commit();
+                        } else {
+                            store(buffer, offset, read);
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public long skip(long n) throws IOException {
+                        // skipped bytes have to end up in the cache as well
+                        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+                        int read = read(buffer, 0, buffer.length);
+                        return Math.max(read, 0);
+                    }
+
+                    @Override
+                    public boolean markSupported() {
+                        return false;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            // parsers stop reading at the end of the JSON value, the bytes
+                            // that may follow it still have to be read to complete the entry
+                            drain(this);
+                        } finally {
+                            try {
+                                super.close();
+                            } finally {
+                                StoringResponse.this.discard();
+                            }
+                        }
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                response.close();
+            } finally {
+                discard();
+            }
+        }
+
+        private void drain(InputStream in) {
+            byte[] buffer = new byte[4096];
+            long drained = 0;
+            int read;
+            try {
+                while (!complete && drained <= MAX_DRAIN_BYTES && (read = in.read(buffer)) != -1) {
+                    drained += read;
+                }
+            } catch (IOException e) {
+                // the entry will be discarded
+            }
+        }
+
+        private void store(int b) {
+            if (complete) {
+                return;
+            }
+            try {
+                out.write(b);
+            } catch (IOException e) {
+                discard();
+            }
+        }
+
+        /**
+         * Copies bytes read from the body into the entry, or drops the entry
+         * if it can't be written, without failing the read.
+         */
+        private void store(byte[] buffer, int offset, int length) {
+            if (complete) {
+                return;
+            }
+            try {
+                out.write(buffer, offset, length);
+            } catch (IOException e) {
+                discard();
+            }
+        }
+
+        /**
+         * Moves the completely read entry into place.
+         */
+        private void commit() {
+            if (complete) {
+                return;
+            }
+            complete = true;
+            try {
+                out.close();
+                try {
+                    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                // e.g. the entry is being read by another process on a platform that
+                // does not allow replacing open files, the next response will be stored
+                deleteQuietly(temporary);
+            }
+        }
+
+        /**
+         * Removes the temporary entry of a body that was not read completely.
+         */
+        private void discard() {
+            if (complete) {
+                return;
+            }
+            complete = true;
+            closeQuietly(out);
+            deleteQuietly(temporary);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.net.URL;
+
+/**
+ * The families of PRIDE Archive web service endpoints used by the
+ * {@link WsClient}.
+ *
+ * Transports use them to apply different settings to different kinds of
+ * requests, e.g. to cache project details longer than search results.
+ */
+public enum Endpoint {
+
+    /** project details: /project/{accession} */
+    PROJECT,
+    /** assay details and assay lists: /assay/{accession}, /assay/list/project/{accession} */
+    ASSAY,
+    /** file lists: /file/list/assay/{accession}, /file/list/project/{accession} */
+    FILE_LIST,
+    /** project search: /project/list */
+    SEARCH,
+    /** project count: /project/count */
+    COUNT,
+    /** any URL not matching one of the known endpoints */
+    OTHER;
+
+    /**
+     * Determines the endpoint family of a service URL.
+     *
+     * @param url the web service URL.
+     * @return the Endpoint the URL belongs to.
+     */
+    public static Endpoint of(URL url) {
+        String path = url.getPath();
+        // the more specific paths have to be checked first, since
+        // e.g. '/assay/list/project/' also contains '/project/'
+        if (path.contains("/file/list/")) {
+            return FILE_LIST;
+        } else if (path.endsWith("/project/list")) {
+            return SEARCH;
+        } else if (path.endsWith("/project/count")) {
+            return COUNT;
+        } else if (path.contains("/assay/")) {
+            return ASSAY;
+        } else if (path.contains("/project/")) {
+            return PROJECT;
+        } else {
+            return OTHER;
+        }
+    }
+}
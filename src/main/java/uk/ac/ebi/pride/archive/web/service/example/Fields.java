@@ -0,0 +1,54 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The properties of a file in a file list, to select the ones a projection
+ * maps, e.g. {@link WsClient#getFilesForProject(String, Fields...)}.
+ *
+ * The properties not selected are skipped by the parser without being
+ * decoded, and stay unset on the returned objects.
+ */
+public enum Fields {
+
+    /** FileDetail.getFileName() */
+    NAME("fileName"),
+    /** FileDetail.getFileSize() */
+    SIZE("fileSize"),
+    /** FileDetail.getDownloadLink() */
+    DOWNLOAD_LINK("downloadLink"),
+    /** FileDetail.getAssayAccession() */
+    ASSAY_ACCESSION("assayAccession"),
+    /** FileDetail.getProjectAccession() */
+    PROJECT_ACCESSION("projectAccession");
+
+    private static final Map<String, Fields> BY_JSON_NAME = new HashMap<>();
+
+    static {
+        for (Fields field : values()) {
+            BY_JSON_NAME.put(field.jsonName, field);
+        }
+    }
+
+    private final String jsonName;
+
+    Fields(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    /**
+     * @return the name of the property in the JSON of the web service.
+     */
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * @param jsonName the name of a property in the JSON of the web service.
+     * @return the field, or null if it is none of the selectable fields.
+     */
+    static Fields forJsonName(String jsonName) {
+        return BY_JSON_NAME.get(jsonName);
+    }
+}
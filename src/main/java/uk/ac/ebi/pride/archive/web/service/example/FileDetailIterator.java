@@ -0,0 +1,109 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import uk.ac.ebi.pride.archive.web.service.model.file.FileDetail;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Iterates over the files of a file list response while it is being read.
+ *
+ * Each file is parsed from the response only when the iteration asks for
+ * it, so just one file is held in memory at a time regardless of the size
+ * of the list, and the files are processed while the rest of the response
+ * is still arriving. The response is closed once the last file was read,
+ * or when the iterator is closed before that.
+ *
+ * Failures to read the response are reported as an UncheckedIOException
+ * holding the original exception as its cause.
+ */
+class FileDetailIterator implements Iterator<FileDetail>, Closeable {
+
+    private final Transport.Response response;
+    private final JsonParser parser;
+    private final Set<Fields> fields;
+    private final ObjectReader reader;
+
+    private FileDetail next;
+    private boolean done;
+
+    /**
+     * @param response the response the parser reads from.
+     * @param parser the parser positioned before the FileDetailList object.
+     * @param fields the fields to map, or null to bind the complete files.
+     * @param reader the reader to bind the complete files with.
+     * @throws IOException in case the JSON could not be read or is not a file list.
+     */
+    FileDetailIterator(Transport.Response response, JsonParser parser, Set<Fields> fields,
+                       ObjectReader reader) throws IOException {
+        this.response = response;
+        this.parser = parser;
+        this.fields = fields;
+        this.reader = reader;
+        if (!FileDetailParser.startList(parser)) {
+            // a list without files
+            close();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    next = fields != null ? FileDetailParser.readFile(parser, fields) : reader.<FileDetail>readValue(parser);
+                } else {
+                    // the end of the array, we don't care for anything after it
+                    close();
+                }
+            } catch (IOException e) {
+                closeQuietly();
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public FileDetail next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        FileDetail file = next;
+        next = null;
+        return file;
+    }
+
+    /**
+     * Closes the response, discarding the files that were not read yet.
+     *
+     * @throws IOException in case the response could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (done) {
+            return;
+        }
+        done = true;
+        try {
+            parser.close();
+        } finally {
+            response.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // the original failure is more relevant
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import uk.ac.ebi.pride.archive.web.service.model.file.FileDetail;
+import uk.ac.ebi.pride.archive.web.service.model.file.FileDetailList;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maps file lists onto the data model with Jackson's streaming parser,
+ * materializing only a selection of the {@link Fields} of each file.
+ *
+ * Binding a FileDetailList with the object mapper decodes and allocates
+ * every property of every file. Here the values of the properties that are
+ * not selected are skipped over in the input without being decoded, which
+ * for large projects saves most of the parse time and garbage.
+ */
+class FileDetailParser {
+
+    private FileDetailParser() {
+    }
+
+    /**
+     * @param parser the parser positioned before the FileDetailList object.
+     * @param fields the fields to map.
+     * @return the file list, with only the selected fields set on its files.
+     * @throws IOException in case the JSON could not be read or is not a file list.
+     */
+    static FileDetailList readList(JsonParser parser, Set<Fields> fields) throws IOException {
+        FileDetailList fileList = new FileDetailList();
+        if (startList(parser)) {
+            List<FileDetail> files = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                files.add(readFile(parser, fields));
+            }
+            fileList.setList(files);
+        }
+        return fileList;
+    }
+
+    /**
+     * Advances the parser into the array of files of a FileDetailList, so
+     * the files can be read one at a time with {@link #readFile(JsonParser, Set)}.
+     *
+     * @param parser the parser positioned before the FileDetailList object.
+     * @return true if the parser is positioned at the start of the array,
+     *         false if the file list has no array of files.
+     * @throws IOException in case the JSON could not be read or is not a file list.
+     */
+    static boolean startList(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException("Expected a file list object", parser.getCurrentLocation());
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            JsonToken value = parser.nextToken();
+            if (parser.getCurrentName().equals("list") && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * @param parser the parser positioned at the start of a FileDetail object.
+     * @param fields the fields to map.
+     * @return the file, with only the selected fields set.
+     * @throws IOException in case the JSON could not be read.
+     */
+    static FileDetail readFile(JsonParser parser, Set<Fields> fields) throws IOException {
+        FileDetail file = new FileDetail();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // field names are canonicalized by the parser, so looking them up allocates nothing
+            Fields field = Fields.forJsonName(parser.getCurrentName());
+            JsonToken value = parser.nextToken();
+            if (field == null || !fields.contains(field) || value == JsonToken.VALUE_NULL) {
+                // skips nested values, scalar values are never decoded unless asked for
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case NAME:
+                    file.setFileName(parser.getText());
+                    break;
+                case SIZE:
+                    file.setFileSize(parser.getValueAsLong());
+                    break;
+                case DOWNLOAD_LINK:
+                    file.setDownloadLink(new URL(parser.getText()));
+                    break;
+                case ASSAY_ACCESSION:
+                    file.setAssayAccession(parser.getText());
+                    break;
+                case PROJECT_ACCESSION:
+                    file.setProjectAccession(parser.getText());
+                    break;
+            }
+        }
+        return file;
+    }
+}
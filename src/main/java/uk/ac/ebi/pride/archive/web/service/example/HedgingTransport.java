@@ -0,0 +1,231 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Transport} that sends hedged requests to cut the tail latency of
+ * another transport.
+ *
+ * If a request to one of the hedged endpoints has not been answered by the
+ * time 95% of the recent requests to that endpoint were, a duplicate request
+ * is sent. Whichever request is answered successfully first is returned, the
+ * other one is closed as soon as it arrives, so its connection is released.
+ * A throttled (429) or failed (5xx) response doesn't win over a slower
+ * successful one, it is only returned if neither request succeeds. Since only a
+ * few percent of the requests are sent twice, a single slow or stalled
+ * service node no longer determines the latency of the slowest requests.
+ *
+ * All requests of the web service are idempotent GET requests, so sending a
+ * request twice is safe.
+ */
+public class HedgingTransport implements Transport {
+
+    // the latencies to keep per endpoint and needed before requests are hedged
+    private static final int LATENCY_SAMPLES = 1000;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private final Transport delegate;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final double percentile;
+    private final Map<Endpoint, LatencyTracker> latencies = new EnumMap<>(Endpoint.class);
+
+    private final AtomicLong hedgedCount = new AtomicLong();
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+
+    /**
+     * Hedges the project and assay detail requests at the 95th latency
+     * percentile, using a pool of daemon threads owned by the transport.
+     *
+     * @param delegate the Transport to send the requests with.
+     */
+    public HedgingTransport(Transport delegate) {
+        this(delegate, EnumSet.of(Endpoint.PROJECT, Endpoint.ASSAY), 0.95, null);
+    }
+
+    /**
+     * @param delegate the Transport to send the requests with.
+     * @param endpoints the endpoints to hedge requests for.
+     * @param percentile the latency percentile (between 0 and 1) after which a
+     *                   request is hedged.
+     * @param executor the Executor to send the requests on. If null, the transport
+     *                 creates (and on close shuts down) its own pool of daemon threads.
+     */
+    public HedgingTransport(Transport delegate, Collection<Endpoint> endpoints, double percentile, Executor executor) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("percentile has to be between 0 and 1: " + percentile);
+        }
+        this.delegate = delegate;
+        this.percentile = percentile;
+        this.ownsExecutor = executor == null;
+        this.executor = executor != null ? executor : Executors.newCachedThreadPool(new DaemonThreadFactory("pride-ws-hedging"));
+        for (Endpoint endpoint : endpoints) {
+            latencies.put(endpoint, new LatencyTracker(LATENCY_SAMPLES, MIN_LATENCY_SAMPLES));
+        }
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+        LatencyTracker tracker = latencies.get(Endpoint.of(url));
+        if (tracker == null) {
+            return delegate.get(url, requestHeaders);
+        }
+
+        CompletableFuture<Response> primary = send(url, requestHeaders, tracker);
+        CompletableFuture<Response> hedge = null;
+        long hedgeDelay = tracker.percentile(percentile);
+        try {
+            if (hedgeDelay < 0) {
+                // not enough requests observed yet to know when to hedge
+                return primary.get();
+            }
+            try {
+                return primary.get(hedgeDelay, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                hedgedCount.incrementAndGet();
+            }
+
+            hedge = send(url, requestHeaders, tracker);
+            CompletableFuture<Response> winner = firstSuccessful(primary, hedge).get();
+            // the slower request is released as soon as it arrives
+            CompletableFuture<Response> loser = winner == primary ? hedge : primary;
+            if (winner == hedge) {
+                hedgeWinCount.incrementAndGet();
+            }
+            loser.thenAccept(HedgingTransport::closeQuietly);
+            return winner.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.thenAccept(HedgingTransport::closeQuietly);
+            if (hedge != null) {
+                hedge.thenAccept(HedgingTransport::closeQuietly);
+            }
+            throw new InterruptedIOException("Interrupted while waiting for " + url);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+        delegate.close();
+    }
+
+    /**
+     * @return the number of requests for which a hedged request was sent.
+     */
+    public long getHedgedCount() {
+        return hedgedCount.get();
+    }
+
+    /**
+     * @return the number of hedged requests that were answered before the original request.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+
+    private CompletableFuture<Response> send(URL url, Map<String, String> requestHeaders, LatencyTracker tracker) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    Response response = delegate.get(url, requestHeaders);
+                    // a quick error must not lower the latency requests are hedged at
+                    if (isSuccess(response)) {
+                        tracker.record(System.nanoTime() - start);
+                    }
+                    future.complete(response);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * @return a future completed with the first of the two requests that
+     *         succeeded. If neither did, it is completed with the first request
+     *         that at least got a response, e.g. a 503, or exceptionally if
+     *         both requests failed.
+     */
+    private static CompletableFuture<CompletableFuture<Response>> firstSuccessful(
+            CompletableFuture<Response> a, CompletableFuture<Response> b) {
+        CompletableFuture<CompletableFuture<Response>> first = new CompletableFuture<>();
+        a.thenAccept(response -> {
+            if (isSuccess(response)) {
+                first.complete(a);
+            }
+        });
+        b.thenAccept(response -> {
+            if (isSuccess(response)) {
+                first.complete(b);
+            }
+        });
+        CompletableFuture.allOf(a, b).whenComplete((ignored, error) -> {
+            // the callbacks above may not have run yet, so the successes are
+            // checked again before falling back to an error response
+            if (succeeded(a)) {
+                first.complete(a);
+            } else if (succeeded(b)) {
+                first.complete(b);
+            } else if (!a.isCompletedExceptionally()) {
+                first.complete(a);
+            } else if (!b.isCompletedExceptionally()) {
+                first.complete(b);
+            } else {
+                a.whenComplete((response, aError) -> first.completeExceptionally(aError));
+            }
+        });
+        return first;
+    }
+
+    private static boolean succeeded(CompletableFuture<Response> request) {
+        return request.isDone() && !request.isCompletedExceptionally() && isSuccess(request.join());
+    }
+
+    /**
+     * @return false for the responses a {@link RetryPolicy} would retry, i.e.
+     *         the service was throttling or failing rather than answering.
+     */
+    private static boolean isSuccess(Response response) {
+        int status = response.getStatusCode();
+        return status != 429 && (status < 500 || status >= 600);
+    }
+
+    private static void closeQuietly(Response response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            // the response is not used anyway
+        }
+    }
+}
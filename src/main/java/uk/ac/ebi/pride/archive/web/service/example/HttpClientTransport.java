@@ -0,0 +1,166 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Transport} based on the JDK's HttpClient, which speaks HTTP/2.
+ *
+ * With HTTP/2 all concurrent requests to a host are multiplexed as streams
+ * over a single connection, instead of each of them taking up a connection
+ * of its own, so hundreds of assay or file list requests can be in flight
+ * without opening hundreds of sockets. If the service (or a proxy in between)
+ * only speaks HTTP/1.1, the client falls back to it automatically: over TLS
+ * the protocol is negotiated with ALPN, over plain HTTP the client asks for
+ * an upgrade on the first request and keeps using HTTP/1.1 if it is ignored.
+ * In that case the client keeps the connections alive and opens as many as
+ * there are concurrent requests, like the {@link PooledTransport} would.
+ *
+ * The read timeout of this transport bounds the time until the response
+ * headers arrive, rather than each individual read.
+ */
+public class HttpClientTransport implements Transport {
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+
+    private volatile Duration readTimeout = Duration.ofMillis(PooledTransport.DEFAULT_READ_TIMEOUT);
+    private final ConcurrentMap<Endpoint, Duration> endpointReadTimeouts = new ConcurrentHashMap<>();
+
+    private final AtomicLong http2ResponseCount = new AtomicLong();
+    private final AtomicLong http1ResponseCount = new AtomicLong();
+
+    /**
+     * Creates a transport that prefers HTTP/2, with the same default connect
+     * and read timeouts as the {@link PooledTransport}.
+     */
+    public HttpClientTransport() {
+        this(HttpClient.Version.HTTP_2, PooledTransport.DEFAULT_CONNECT_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param version the preferred HTTP version, HTTP_1_1 to never use HTTP/2.
+     * @param connectTimeout the time to wait for a connection to be established.
+     * @param unit the unit of the connectTimeout.
+     */
+    public HttpClientTransport(HttpClient.Version version, long connectTimeout, TimeUnit unit) {
+        // the client's own default pool would keep the JVM alive
+        this.executor = Executors.newCachedThreadPool(new DaemonThreadFactory("pride-ws-http"));
+        this.client = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofMillis(unit.toMillis(connectTimeout)))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * @param timeout the time to wait for the response headers.
+     * @param unit the unit of the timeout.
+     */
+    public void setReadTimeout(long timeout, TimeUnit unit) {
+        readTimeout = Duration.ofMillis(unit.toMillis(timeout));
+    }
+
+    /**
+     * @param endpoint the endpoint to set the read timeout for.
+     * @param timeout the time to wait for the response headers from the endpoint.
+     * @param unit the unit of the timeout.
+     */
+    public void setReadTimeout(Endpoint endpoint, long timeout, TimeUnit unit) {
+        endpointReadTimeouts.put(endpoint, Duration.ofMillis(unit.toMillis(timeout)));
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+        HttpRequest.Builder request;
+        try {
+            request = HttpRequest.newBuilder(url.toURI()).GET();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid URL: " + url, e);
+        }
+        Duration endpointReadTimeout = endpointReadTimeouts.get(Endpoint.of(url));
+        request.timeout(endpointReadTimeout != null ? endpointReadTimeout : readTimeout);
+        for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+            request.header(header.getKey(), header.getValue());
+        }
+
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + url);
+        }
+        if (response.version() == HttpClient.Version.HTTP_2) {
+            http2ResponseCount.incrementAndGet();
+        } else {
+            http1ResponseCount.incrementAndGet();
+        }
+        return new HttpClientResponse(response);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the client itself has no resources to release, it is closed once unreferenced
+        executor.shutdown();
+    }
+
+    /**
+     * @return the number of responses received over HTTP/2.
+     */
+    public long getHttp2ResponseCount() {
+        return http2ResponseCount.get();
+    }
+
+    /**
+     * @return the number of responses received over HTTP/1.1, after falling back to it.
+     */
+    public long getHttp1ResponseCount() {
+        return http1ResponseCount.get();
+    }
+
+    private static class HttpClientResponse implements Response {
+
+        private final HttpResponse<InputStream> response;
+
+        HttpClientResponse(HttpResponse<InputStream> response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return response.headers().firstValue(name).orElse(null);
+        }
+
+        @Override
+        public InputStream getBody() {
+            return response.body();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // closing the body releases the stream, or the connection for reuse
+            response.body().close();
+        }
+    }
+}
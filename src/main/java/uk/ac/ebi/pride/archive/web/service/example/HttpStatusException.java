@@ -0,0 +1,46 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Thrown when the web service responds to a request with an HTTP status
+ * other than 200 (OK).
+ */
+public class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final URL url;
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    /**
+     * @param url the URL of the failed request.
+     * @param statusCode the HTTP status code of the response.
+     * @param retryAfterMillis the time the service asked to wait before
+     *                         retrying the request, or -1 if it did not.
+     */
+    public HttpStatusException(URL url, int statusCode, long retryAfterMillis) {
+        super("Failed : HTTP error code : " + statusCode + " (" + url + ")");
+        this.url = url;
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return the time in milliseconds the service asked to wait before
+     *         retrying the request, or -1 if it did not.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
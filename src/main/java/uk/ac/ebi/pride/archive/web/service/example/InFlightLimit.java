@@ -0,0 +1,54 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of asynchronous requests that are in flight at the same
+ * time, e.g. when fanning out requests for all the projects of a result page.
+ *
+ * Submitting a request blocks the submitting thread until one of the
+ * requests already in flight has completed, so a fan-out never has more than
+ * the configured number of requests outstanding, no matter how many it submits.
+ */
+public class InFlightLimit {
+
+    private final Semaphore permits;
+    private final int maxInFlight;
+
+    /**
+     * @param maxInFlight the maximum number of requests in flight.
+     */
+    public InFlightLimit(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight has to be positive: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Starts a request as soon as the number of requests in flight allows it.
+     *
+     * @param request starts the asynchronous request.
+     * @return the future result of the request.
+     * @throws InterruptedException if interrupted while waiting to start the request.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) throws InterruptedException {
+        permits.acquire();
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        future.whenComplete((result, error) -> permits.release());
+        return future;
+    }
+}
@@ -0,0 +1,75 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the most recent latencies observed for a kind of request and
+ * provides percentiles over them.
+ *
+ * Sorting the samples for every lookup would be too expensive on the
+ * request path, so the percentiles are recomputed only after a number of
+ * new samples have been recorded.
+ */
+class LatencyTracker {
+
+    private final long[] samples;
+    private final int minSamples;
+    private final int recomputeInterval;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private long[] sorted = new long[0];
+
+    /**
+     * @param capacity the number of most recent samples to keep.
+     * @param minSamples the number of samples needed before percentiles are reported.
+     */
+    LatencyTracker(int capacity, int minSamples) {
+        this.samples = new long[capacity];
+        this.minSamples = minSamples;
+        this.recomputeInterval = Math.max(1, capacity / 20);
+    }
+
+    /**
+     * @param nanos the latency of a request in nanoseconds.
+     */
+    void record(long nanos) {
+        lock.lock();
+        try {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+            sinceRecompute++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 1.
+     * @return the latency in nanoseconds below which the given share of the
+     *         recent requests completed, or -1 if there are not enough samples yet.
+     */
+    long percentile(double percentile) {
+        lock.lock();
+        try {
+            if (count < minSamples) {
+                return -1;
+            }
+            if (sorted.length != count || sinceRecompute >= recomputeInterval) {
+                sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                sinceRecompute = 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        } finally {
+            lock.unlock();
+        }
+    }
+}
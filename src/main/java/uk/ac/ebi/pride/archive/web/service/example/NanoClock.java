@@ -0,0 +1,37 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time source of the transports that pace or measure requests, which
+ * tests replace to control the passing of time.
+ */
+interface NanoClock {
+
+    /**
+     * The clock of the JVM, see {@link System#nanoTime()}.
+     */
+    NanoClock SYSTEM = new NanoClock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void sleep(long nanos) throws InterruptedException {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    };
+
+    /**
+     * @return the current value of the clock in nanoseconds, only meaningful
+     *         compared to other values of the same clock.
+     */
+    long nanoTime();
+
+    /**
+     * @param nanos the time to sleep in nanoseconds.
+     * @throws InterruptedException if interrupted while sleeping.
+     */
+    void sleep(long nanos) throws InterruptedException;
+}
@@ -0,0 +1,276 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link Transport} based on the JDK's HttpURLConnection that keeps the
+ * connections to the web service alive and reuses them between requests.
+ *
+ * The JDK already maintains a keep-alive cache of idle connections, but only
+ * hands a socket back to it if the response body has been read completely
+ * and the stream was closed (instead of calling disconnect()). This transport
+ * takes care of that when a response is closed, and in addition bounds the
+ * number of connections open to the same host at the same time. By default
+ * that bound matches the number of idle connections the JDK keeps per host
+ * (the 'http.maxConnections' system property), so every connection that is
+ * opened can be reused by a later request instead of being thrown away.
+ *
+ * Connecting to the service and reading from it are bounded by timeouts, so
+ * that a stalled service node can't block a request forever. The read
+ * timeout can be set separately for each {@link Endpoint}, e.g. to allow
+ * more time for the large file lists.
+ */
+public class PooledTransport implements Transport {
+
+    /**
+     * The default maximum number of connections per host.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = Integer.getInteger("http.maxConnections", 5);
+
+    /**
+     * The default time to wait for a connection to be established, in milliseconds.
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+
+    /**
+     * The default time to wait for data from the service, in milliseconds.
+     */
+    public static final int DEFAULT_READ_TIMEOUT = 60000;
+
+    // if a response is closed before the body was fully read, we read up to this
+    // many remaining bytes to keep the connection reusable, otherwise we drop it
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+    private final int maxConnectionsPerHost;
+
+    private volatile int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private volatile int readTimeout = DEFAULT_READ_TIMEOUT;
+    private final ConcurrentMap<Endpoint, Integer> endpointReadTimeouts = new ConcurrentHashMap<>();
+
+    // one set of connection permits for each protocol/host/port combination
+    private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a transport using {@link #DEFAULT_MAX_CONNECTIONS_PER_HOST}
+     * connections per host.
+     */
+    public PooledTransport() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_HOST);
+    }
+
+    /**
+     * @param maxConnectionsPerHost the maximum number of connections open to the
+     *                              same host at any given time. Requests exceeding
+     *                              this limit wait for a connection to be released.
+     */
+    public PooledTransport(int maxConnectionsPerHost) {
+        if (maxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("maxConnectionsPerHost has to be positive: " + maxConnectionsPerHost);
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * @param timeout the time to wait for a connection to be established, 0 to wait forever.
+     * @param unit the unit of the timeout.
+     */
+    public void setConnectTimeout(long timeout, TimeUnit unit) {
+        connectTimeout = toMillis(timeout, unit);
+    }
+
+    /**
+     * @param timeout the time to wait for data from the service, 0 to wait forever.
+     * @param unit the unit of the timeout.
+     */
+    public void setReadTimeout(long timeout, TimeUnit unit) {
+        readTimeout = toMillis(timeout, unit);
+    }
+
+    /**
+     * @param endpoint the endpoint to set the read timeout for.
+     * @param timeout the time to wait for data from the endpoint, 0 to wait forever.
+     * @param unit the unit of the timeout.
+     */
+    public void setReadTimeout(Endpoint endpoint, long timeout, TimeUnit unit) {
+        endpointReadTimeouts.put(endpoint, toMillis(timeout, unit));
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+        Semaphore permits = permitsFor(url);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + url.getHost());
+        }
+
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) url.openConnection();
+            conn.setRequestMethod("GET");
+            conn.setConnectTimeout(connectTimeout);
+            Integer endpointReadTimeout = endpointReadTimeouts.get(Endpoint.of(url));
+            conn.setReadTimeout(endpointReadTimeout != null ? endpointReadTimeout : readTimeout);
+            for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+                conn.setRequestProperty(header.getKey(), header.getValue());
+            }
+            int statusCode = conn.getResponseCode();
+            return new PooledResponse(conn, statusCode, permits);
+        } catch (IOException | RuntimeException e) {
+            // the connection is in an unknown state, so we don't try to reuse it
+            if (conn != null) {
+                conn.disconnect();
+            }
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Idle connections are kept by the JDK and closed after their keep-alive
+     * timeout, so there is nothing to release here.
+     */
+    @Override
+    public void close() {
+    }
+
+    private static int toMillis(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative: " + timeout);
+        }
+        long millis = unit.toMillis(timeout);
+        // a timeout that rounds down to 0 would mean no timeout at all
+        return (int) Math.min(Integer.MAX_VALUE, millis == 0 && timeout > 0 ? 1 : millis);
+    }
+
+    private Semaphore permitsFor(URL url) {
+        int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+        String key = url.getProtocol() + "://" + url.getHost() + ":" + port;
+        Semaphore permits = hostPermits.get(key);
+        if (permits == null) {
+            Semaphore created = new Semaphore(maxConnectionsPerHost, true);
+            permits = hostPermits.putIfAbsent(key, created);
+            if (permits == null) {
+                permits = created;
+            }
+        }
+        return permits;
+    }
+
+    /**
+     * A response that hands its connection back to the JDK keep-alive cache
+     * and releases its host permit once it is closed.
+     */
+    private static class PooledResponse implements Response {
+
+        private final HttpURLConnection conn;
+        private final int statusCode;
+        private final Semaphore permits;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private BodyStream body;
+
+        PooledResponse(HttpURLConnection conn, int statusCode, Semaphore permits) {
+            this.conn = conn;
+            this.statusCode = statusCode;
+            this.permits = permits;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return conn.getHeaderField(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                InputStream in = openBody();
+                body = in != null ? new BodyStream(in) : null;
+            }
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                InputStream in = body != null ? body : openBody();
+                if (in == null || (body != null && body.closed)) {
+                    // a body closed by its reader has already been handed back
+                    return;
+                }
+                if (drain(in)) {
+                    // closing a fully read stream returns the socket to the keep-alive cache
+                    in.close();
+                } else {
+                    // too much left to read, it's cheaper to drop the connection
+                    conn.disconnect();
+                }
+            } catch (IOException e) {
+                conn.disconnect();
+            } finally {
+                permits.release();
+            }
+        }
+
+        private InputStream openBody() throws IOException {
+            // error responses are delivered through a separate stream, which
+            // also has to be consumed for the connection to be reusable
+            return statusCode >= 400 ? conn.getErrorStream() : conn.getInputStream();
+        }
+
+        /**
+         * Keeps track of whether the body was already closed by its reader
+         * (parsers usually close their source once they are done).
+         */
+        private static class BodyStream extends FilterInputStream {
+
+            private volatile boolean closed;
+
+            BodyStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public void close() throws IOException {
+                closed = true;
+                super.close();
+            }
+        }
+
+        private static boolean drain(InputStream in) throws IOException {
+            byte[] buffer = new byte[4096];
+            long drained = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                drained += read;
+                if (drained > MAX_DRAIN_BYTES) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import uk.ac.ebi.pride.archive.web.service.model.project.ProjectSummary;
+import uk.ac.ebi.pride.archive.web.service.model.project.ProjectSummaryList;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Iterates over all the projects matching a keyword query, page by page.
+ *
+ * Pages are only requested when needed: while the projects of one page are
+ * consumed the next page is already being retrieved in the background, so at
+ * most two pages are held in memory regardless of the number of matching
+ * projects. The iteration stops at the number of projects reported by the
+ * count service.
+ *
+ * Failures to retrieve a page are reported as a CompletionException holding
+ * the original exception as its cause.
+ */
+class ProjectSummaryIterator implements Iterator<ProjectSummary> {
+
+    private final WsClient client;
+    private final Set<String> keywords;
+    private final int pageSize;
+
+    private final CompletableFuture<Long> count;
+    private CompletableFuture<ProjectSummaryList> nextPage;
+    private int nextPageNumber;
+    private Iterator<ProjectSummary> currentPage = Collections.emptyIterator();
+    private long returned;
+
+    /**
+     * @param client the client to retrieve the pages with.
+     * @param keywords the keywords to query for.
+     * @param pageSize the number of projects to retrieve per page.
+     */
+    ProjectSummaryIterator(WsClient client, Set<String> keywords, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize has to be positive: " + pageSize);
+        }
+        this.client = client;
+        this.keywords = keywords;
+        this.pageSize = pageSize;
+        // the total and the first page are independent, so we request both at once
+        this.count = client.countProjectsAsync(keywords);
+        this.nextPage = requestPage(0);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext()) {
+            if (nextPage == null) {
+                return false;
+            }
+            if (returned >= count.join()) {
+                cancel();
+                return false;
+            }
+            ProjectSummaryList page = nextPage.join();
+            // prefetch the following page while this one is consumed
+            long requested = (long) nextPageNumber * pageSize;
+            nextPage = requested < count.join() ? requestPage(nextPageNumber) : null;
+            if (page == null || page.getList() == null || page.getList().isEmpty()) {
+                // the service has no more results, even if the count said otherwise
+                cancel();
+                return false;
+            }
+            currentPage = page.getList().iterator();
+        }
+        return returned < count.join();
+    }
+
+    @Override
+    public ProjectSummary next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        returned++;
+        return currentPage.next();
+    }
+
+    /**
+     * Discards the page that is currently being prefetched, if any.
+     */
+    void cancel() {
+        if (nextPage != null) {
+            nextPage.cancel(false);
+            nextPage = null;
+        }
+    }
+
+    private CompletableFuture<ProjectSummaryList> requestPage(int page) {
+        nextPageNumber = page + 1;
+        return client.queryForProjectsAsync(keywords, page, pageSize);
+    }
+}
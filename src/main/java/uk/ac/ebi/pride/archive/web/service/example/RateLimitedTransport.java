@@ -0,0 +1,50 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * A {@link Transport} that sends the requests of another transport no
+ * faster than a {@link RateLimiter} allows.
+ *
+ * A single limiter is shared by all endpoints, so the combined rate of all
+ * requests of a client (or of all clients sharing the limiter) stays below
+ * the limit, instead of the service throttling the requests with '429 Too
+ * Many Requests' responses.
+ */
+public class RateLimitedTransport implements Transport {
+
+    private final Transport delegate;
+    private final RateLimiter rateLimiter;
+
+    /**
+     * @param delegate the Transport to send the requests with.
+     * @param rateLimiter the limiter to pass every request through.
+     */
+    public RateLimitedTransport(Transport delegate, RateLimiter rateLimiter) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send " + url);
+        }
+        return delegate.get(url, requestHeaders);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+}
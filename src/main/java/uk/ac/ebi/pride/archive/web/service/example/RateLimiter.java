@@ -0,0 +1,171 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A token bucket limiting the rate of requests.
+ *
+ * The bucket is refilled at the configured rate and holds up to 'burst'
+ * tokens, so after an idle period up to that many requests can be sent at
+ * once, while the long term rate never exceeds the configured one.
+ *
+ * Callers reserve their token under a short lock and then wait for it
+ * outside of the lock, so no thread ever blocks while holding the lock and
+ * waiting does not pin virtual threads to their carrier thread.
+ */
+public class RateLimiter {
+
+    // the tokens the bucket stores in addition to the one that is free at nextFreeNanos
+    private final double maxStoredTokens;
+    private final double intervalNanos;
+    private final NanoClock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private double storedTokens;
+    private long nextFreeNanos;
+
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param requestsPerSecond the long term maximum rate of requests.
+     * @param burst the maximum number of requests that can be sent at once.
+     */
+    public RateLimiter(double requestsPerSecond, int burst) {
+        this(requestsPerSecond, burst, NanoClock.SYSTEM);
+    }
+
+    /**
+     * @param requestsPerSecond the long term maximum rate of requests.
+     * @param burst the maximum number of requests that can be sent at once.
+     * @param clock the clock to pace the requests by.
+     */
+    RateLimiter(double requestsPerSecond, int burst, NanoClock clock) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("requestsPerSecond has to be positive: " + requestsPerSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst has to be positive: " + burst);
+        }
+        this.maxStoredTokens = burst - 1;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        this.clock = clock;
+        this.storedTokens = maxStoredTokens;
+        this.nextFreeNanos = clock.nanoTime();
+    }
+
+    /**
+     * Waits until a request may be sent.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        lock.lock();
+        try {
+            waitNanos = reserve(clock.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+        acquireCount.incrementAndGet();
+        if (waitNanos > 0) {
+            waitCount.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            long max;
+            while ((max = maxWaitNanos.get()) < waitNanos && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+                // retry until we either set the new maximum or someone else set a larger one
+            }
+            clock.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes a token if one is available right now.
+     *
+     * @return true if a request may be sent, false if it would have to wait.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            long now = clock.nanoTime();
+            refill(now);
+            if (nextFreeNanos > now) {
+                // the next token is already reserved by a waiting request
+                return false;
+            }
+            reserve(now);
+        } finally {
+            lock.unlock();
+        }
+        acquireCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return the number of acquired tokens.
+     */
+    public long getAcquireCount() {
+        return acquireCount.get();
+    }
+
+    /**
+     * @return the number of acquisitions that had to wait.
+     */
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    /**
+     * @param unit the unit to return the wait time in.
+     * @return the total time spent waiting for tokens.
+     */
+    public long getTotalWaitTime(TimeUnit unit) {
+        return unit.convert(totalWaitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit the unit to return the wait time in.
+     * @return the longest time a single acquisition waited.
+     */
+    public long getMaxWaitTime(TimeUnit unit) {
+        return unit.convert(maxWaitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit the unit to return the wait time in.
+     * @return the average time an acquisition waited, including those that did not wait.
+     */
+    public double getAverageWaitTime(TimeUnit unit) {
+        long acquired = acquireCount.get();
+        return acquired == 0 ? 0 : (double) getTotalWaitTime(TimeUnit.NANOSECONDS) / acquired / unit.toNanos(1);
+    }
+
+    /**
+     * Adds the tokens accumulated since the last reservation.
+     */
+    private void refill(long now) {
+        if (now > nextFreeNanos) {
+            storedTokens = Math.min(maxStoredTokens, storedTokens + (now - nextFreeNanos) / intervalNanos);
+            nextFreeNanos = now;
+        }
+    }
+
+    /**
+     * Reserves the next token, using a stored token if there is one or
+     * otherwise the next token the bucket will be refilled with.
+     *
+     * @return the time to wait for the reserved token.
+     */
+    private long reserve(long now) {
+        refill(now);
+        long waitNanos = nextFreeNanos - now;
+        double fromStore = Math.min(1, storedTokens);
+        storedTokens -= fromStore;
+        nextFreeNanos += (long) ((1 - fromStore) * intervalNanos);
+        return waitNanos;
+    }
+}
@@ -0,0 +1,145 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which failed requests are retried by a {@link RetryingTransport}
+ * and how long to wait before each retry.
+ *
+ * Responses with status 429 (Too Many Requests) or 5xx (server errors) and
+ * requests failing with an IOException are considered transient and are
+ * retried. The delays between the attempts grow exponentially with
+ * "decorrelated jitter": each delay is picked at random between the base
+ * delay and three times the previous delay, capped at the maximum delay, so
+ * that clients which failed at the same time don't retry at the same time.
+ * If the service sends a 'Retry-After' header, that delay is used instead.
+ */
+public class RetryPolicy {
+
+    /**
+     * Retries up to 3 times, waiting between 100ms and 10s, allowing retries
+     * to add at most 10% to the number of requests.
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(4, 100, 10000, TimeUnit.MILLISECONDS, 0.1);
+
+    // the longest Retry-After we are willing to wait, we give up otherwise
+    private static final long MAX_RETRY_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final double retryBudgetRatio;
+
+    /**
+     * @param maxAttempts the maximum number of attempts for a request, including the first.
+     * @param baseDelay the minimum time to wait before a retry.
+     * @param maxDelay the maximum time to wait before a retry.
+     * @param unit the unit of the delays.
+     * @param retryBudgetRatio the maximum number of retries as a share of the requests,
+     *                         e.g. 0.1 to never let retries add more than 10% to the load.
+     */
+    public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit, double retryBudgetRatio) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts has to be positive: " + maxAttempts);
+        }
+        if (baseDelay < 1 || maxDelay < baseDelay) {
+            throw new IllegalArgumentException("invalid delays: " + baseDelay + " - " + maxDelay);
+        }
+        if (retryBudgetRatio < 0) {
+            throw new IllegalArgumentException("retryBudgetRatio must not be negative: " + retryBudgetRatio);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = unit.toMillis(baseDelay);
+        this.maxDelayMillis = unit.toMillis(maxDelay);
+        this.retryBudgetRatio = retryBudgetRatio;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    /**
+     * @param statusCode the HTTP status code of a response.
+     * @return true if the request may succeed when it is retried.
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode == 429 || (statusCode >= 500 && statusCode < 600);
+    }
+
+    /**
+     * @param exception the exception a request failed with.
+     * @return true if the request may succeed when it is retried.
+     */
+    public boolean isRetryable(IOException exception) {
+        if (exception instanceof HttpStatusException) {
+            return isRetryable(((HttpStatusException) exception).getStatusCode());
+        }
+        if (exception instanceof CircuitOpenException) {
+            // the endpoint is known to be down, retrying would only wait for the same answer
+            return false;
+        }
+        // an interrupted thread wants to stop, but timeouts are worth another try
+        return !(exception instanceof InterruptedIOException) || exception instanceof SocketTimeoutException;
+    }
+
+    /**
+     * @param previousDelayMillis the delay before the previous retry, 0 for the first retry.
+     * @return the time to wait in milliseconds before the next retry.
+     */
+    public long nextDelayMillis(long previousDelayMillis) {
+        // the first retry is drawn from [base, 3 * base] as well, a fixed first
+        // delay would line up the retries of clients that failed together
+        long previous = Math.max(baseDelayMillis, previousDelayMillis);
+        long upper = Math.min(maxDelayMillis, previous * 3);
+        if (upper <= baseDelayMillis) {
+            return baseDelayMillis;
+        }
+        return ThreadLocalRandom.current().nextLong(baseDelayMillis, upper + 1);
+    }
+
+    /**
+     * @param retryAfterMillis the delay the service asked for.
+     * @return true if we are willing to wait that long.
+     */
+    public boolean acceptsRetryAfter(long retryAfterMillis) {
+        return retryAfterMillis <= MAX_RETRY_AFTER_MILLIS;
+    }
+
+    /**
+     * Parses the value of a 'Retry-After' header, which is either a number
+     * of seconds or an HTTP date.
+     *
+     * @param value the header value, may be null.
+     * @return the delay in milliseconds, or -1 if there is no (valid) value.
+     */
+    public static long parseRetryAfter(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            // not a number of seconds, so it should be a date
+        }
+        SimpleDateFormat httpDate = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        httpDate.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return Math.max(0, httpDate.parse(trimmed).getTime() - System.currentTimeMillis());
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Transport} that retries requests of another transport which
+ * failed for transient reasons, as decided by a {@link RetryPolicy}.
+ *
+ * Retries are limited by a retry budget: every request adds a fraction of a
+ * retry to the budget and every retry takes a whole one. When the service is
+ * in trouble and most requests fail, the budget runs out and failures are
+ * reported instead of retried, so the retries can't multiply the load on a
+ * service that is already struggling.
+ *
+ * If the retries are exhausted, the last failed response is returned (and
+ * reported by the {@link WsClient} as an {@link HttpStatusException}) or the
+ * last IOException is thrown.
+ */
+public class RetryingTransport implements Transport {
+
+    // the retries that can be spent at once, e.g. at start-up
+    private static final double MAX_BUDGET = 10;
+
+    private final Transport delegate;
+    private final RetryPolicy policy;
+
+    private final ReentrantLock budgetLock = new ReentrantLock();
+    private double budget = MAX_BUDGET;
+
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong budgetExhaustedCount = new AtomicLong();
+
+    /**
+     * Retries requests according to {@link RetryPolicy#DEFAULT}.
+     *
+     * @param delegate the Transport to send the requests with.
+     */
+    public RetryingTransport(Transport delegate) {
+        this(delegate, RetryPolicy.DEFAULT);
+    }
+
+    /**
+     * @param delegate the Transport to send the requests with.
+     * @param policy the policy deciding which requests are retried when.
+     */
+    public RetryingTransport(Transport delegate, RetryPolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> requestHeaders) throws IOException {
+        deposit();
+        long delay = 0;
+        for (int attempt = 1; ; attempt++) {
+            boolean lastAttempt = attempt >= policy.getMaxAttempts();
+            Response response;
+            try {
+                response = delegate.get(url, requestHeaders);
+            } catch (IOException e) {
+                if (lastAttempt || !policy.isRetryable(e) || !withdraw()) {
+                    throw e;
+                }
+                delay = policy.nextDelayMillis(delay);
+                pause(delay, url);
+                continue;
+            }
+
+            if (lastAttempt || !policy.isRetryable(response.getStatusCode())) {
+                return response;
+            }
+            long retryAfter = RetryPolicy.parseRetryAfter(response.getHeader("Retry-After"));
+            if ((retryAfter >= 0 && !policy.acceptsRetryAfter(retryAfter)) || !withdraw()) {
+                return response;
+            }
+            response.close();
+            delay = policy.nextDelayMillis(delay);
+            // the service knows best when it will be able to answer again
+            pause(retryAfter >= 0 ? retryAfter : delay, url);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * @return the number of retries sent.
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * @return the number of retries not sent because the retry budget was used up.
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhaustedCount.get();
+    }
+
+    private void deposit() {
+        budgetLock.lock();
+        try {
+            budget = Math.min(MAX_BUDGET, budget + policy.getRetryBudgetRatio());
+        } finally {
+            budgetLock.unlock();
+        }
+    }
+
+    private boolean withdraw() {
+        budgetLock.lock();
+        try {
+            if (budget >= 1) {
+                budget -= 1;
+                retryCount.incrementAndGet();
+                return true;
+            }
+        } finally {
+            budgetLock.unlock();
+        }
+        budgetExhaustedCount.incrementAndGet();
+        return false;
+    }
+
+    private static void pause(long millis, URL url) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry " + url);
+        }
+    }
+}
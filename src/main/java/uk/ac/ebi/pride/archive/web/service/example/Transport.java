@@ -0,0 +1,64 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * The HTTP layer used by the {@link WsClient} to talk to the PRIDE Archive
+ * web service.
+ *
+ * Keeping the transport behind this small interface allows the client to
+ * switch the way requests are sent (connection pooling, different HTTP
+ * implementations, decorators adding extra behaviour, ...) without touching
+ * the code that builds the service URLs and maps the JSON responses.
+ */
+public interface Transport extends Closeable {
+
+    /**
+     * Sends a GET request to the provided URL.
+     *
+     * The returned response has to be closed by the caller once the body
+     * has been consumed, so that the underlying connection can be reused.
+     *
+     * @param url the web service GET URL for the request.
+     * @param requestHeaders the HTTP request headers to send.
+     * @return the (open) response of the service.
+     * @throws IOException in case the request could not be sent.
+     */
+    Response get(URL url, Map<String, String> requestHeaders) throws IOException;
+
+    /**
+     * A response received through a {@link Transport}.
+     */
+    interface Response extends Closeable {
+
+        /**
+         * @return the HTTP status code of the response.
+         */
+        int getStatusCode();
+
+        /**
+         * @param name the (case insensitive) name of the response header.
+         * @return the value of the header or null if it was not present.
+         */
+        String getHeader(String name);
+
+        /**
+         * @return the stream to read the response body from.
+         * @throws IOException in case the body could not be opened.
+         */
+        InputStream getBody() throws IOException;
+
+        /**
+         * Releases the response, handing the connection back to the
+         * transport for reuse where possible.
+         *
+         * @throws IOException in case the connection could not be released.
+         */
+        @Override
+        void close() throws IOException;
+    }
+}
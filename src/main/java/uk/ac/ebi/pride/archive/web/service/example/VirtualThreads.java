@@ -0,0 +1,87 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates executors that run every task on a virtual thread, if the JVM
+ * supports them (Java 21 and later).
+ *
+ * The client is built for older Java versions, so the virtual thread API is
+ * looked up by reflection. On JVMs without virtual threads the executors fall
+ * back to a cached pool of daemon platform threads.
+ *
+ * Virtual threads make blocking I/O cheap: thousands of concurrent requests
+ * each block a virtual thread, while only a few platform (carrier) threads
+ * are needed to run them. The client and its transports guard their shared
+ * state with locks from java.util.concurrent rather than synchronized, so a
+ * virtual thread waiting for such a lock never pins its carrier thread.
+ */
+public final class VirtualThreads {
+
+    // Thread.ofVirtual(), Thread.Builder.name(String, long), Thread.Builder.factory()
+    // and Executors.newThreadPerTaskExecutor(ThreadFactory), or null if not available
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // the API exists as a preview in Java 19 and 20, where using it fails
+            newExecutor(ofVirtual, name, factory, newThreadPerTaskExecutor, "probe").shutdown();
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the JVM supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param namePrefix the prefix of the thread names.
+     * @return an executor starting a new virtual thread for every task, or a
+     *         cached pool of daemon threads if virtual threads are not supported.
+     */
+    public static ExecutorService newExecutor(String namePrefix) {
+        if (isSupported()) {
+            try {
+                return newExecutor(OF_VIRTUAL, NAME, FACTORY, NEW_THREAD_PER_TASK_EXECUTOR, namePrefix);
+            } catch (ReflectiveOperationException e) {
+                // checked when the class was loaded, so this can't happen
+                throw new IllegalStateException(e);
+            }
+        }
+        return Executors.newCachedThreadPool(new DaemonThreadFactory(namePrefix));
+    }
+
+    private static ExecutorService newExecutor(Method ofVirtual, Method name, Method factory,
+                                               Method newThreadPerTaskExecutor, String namePrefix)
+            throws ReflectiveOperationException {
+        Object builder = name.invoke(ofVirtual.invoke(null), namePrefix + "-", 1L);
+        ThreadFactory threadFactory = (ThreadFactory) factory.invoke(builder);
+        return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+    }
+}
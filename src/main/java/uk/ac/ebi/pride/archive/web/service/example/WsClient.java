@@ -1,7 +1,9 @@
 package uk.ac.ebi.pride.archive.web.service.example;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.apache.commons.cli.*;
 import uk.ac.ebi.pride.archive.web.service.model.assay.AssayDetail;
 import uk.ac.ebi.pride.archive.web.service.model.assay.AssayDetailList;
@@ -11,11 +13,18 @@ import uk.ac.ebi.pride.archive.web.service.model.project.ProjectDetail;
 import uk.ac.ebi.pride.archive.web.service.model.project.ProjectSummary;
 import uk.ac.ebi.pride.archive.web.service.model.project.ProjectSummaryList;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Example of a Java Client to consume PRIDE Archive RESTful web services.
@@ -28,26 +37,160 @@ import java.util.*;
  * @author florian@ebi.ac.uk.
  */
 @SuppressWarnings("unused")
-public class WsClient {
+public class WsClient implements Closeable {
 
-    // use a Jackson JSON object mapper to map the retrieved JSON String
+    /**
+     * The base URL of the public PRIDE Archive web service.
+     */
+    public static final String DEFAULT_BASE_URL = "http://www.ebi.ac.uk/pride/ws/archive";
+
+    // the request headers sent with every service request
+    private static final Map<String, String> REQUEST_HEADERS = Collections.singletonMap("Accept", "application/json");
+
+    // the types of the data model the service responses are mapped onto
+    private static final List<Class<?>> MODEL_TYPES = Arrays.<Class<?>>asList(ProjectDetail.class,
+            AssayDetail.class, FileDetail.class, FileDetailList.class, AssayDetailList.class, ProjectSummaryList.class);
+
+    // use a Jackson JSON object mapper to map the retrieved JSON
     // onto the Java objects of the web service data model.
-    private ObjectMapper objectMapper;
+    private final ObjectMapper objectMapper;
+
+    // whether the mapper generates bytecode to map the model, see useAfterburner()
+    private final boolean afterburner;
+
+    // the readers of the mapper for each of the model types, built once so
+    // the requests don't have to look up the deserializer of their type
+    // again, ObjectReaders are immutable and can be shared by all threads
+    private final Map<Class<?>, ObjectReader> readers;
+
+    // the HTTP transport used to send the requests, shared by all methods
+    // so that connections to the service can be reused between requests
+    private final Transport transport;
+
+    // the base URL all service URLs are built from, e.g. to use a local
+    // mirror or caching proxy instead of the public service
+    private final String baseUrl;
+
+    // the executor running the requests of the asynchronous methods and
+    // whether it was created by (and therefore has to be shut down with) the client
+    private final Executor executor;
+    private final boolean ownsExecutor;
+
+    // the requests currently in flight by URL, so that concurrent identical
+    // requests can share the response of a single service call
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
 
     /**
      * An example client that uses the PRIDE Archive web service to query for
      * and retrieve data for public datasets in PRIDE.
      */
     public WsClient() {
-        objectMapper = new ObjectMapper();
-        // In case the used Java object model does not fully match the
-        // returned JSON data model, the data mapper could produce errors.
-        // In order to avoid this we can instruct the mapper to ignore
-        // unrecognised fields. This may be a good practise to make the
-        // code more resilient against small model changes and the client
-        // code can concentrate on the data it really needs, which makes
-        // the code more readable and maintainable.
-        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this(new CompressingTransport(new PooledTransport()));
+    }
+
+    /**
+     * An example client that uses a PRIDE Archive web service at the
+     * provided location to query for and retrieve data for public datasets.
+     *
+     * @param baseUrl the base URL of the web service, see {@link #DEFAULT_BASE_URL}.
+     */
+    public WsClient(String baseUrl) {
+        this(baseUrl, new CompressingTransport(new PooledTransport()), null);
+    }
+
+    /**
+     * An example client that uses the PRIDE Archive web service to query for
+     * and retrieve data for public datasets in PRIDE.
+     *
+     * @param transport the Transport to send the service requests with.
+     */
+    public WsClient(Transport transport) {
+        this(transport, null);
+    }
+
+    /**
+     * An example client that uses the PRIDE Archive web service to query for
+     * and retrieve data for public datasets in PRIDE.
+     *
+     * @param transport the Transport to send the service requests with.
+     * @param executor the Executor to run the requests of the asynchronous
+     *                 methods on. If null, the client creates (and on close
+     *                 shuts down) its own pool of daemon threads.
+     */
+    public WsClient(Transport transport, Executor executor) {
+        this(DEFAULT_BASE_URL, transport, executor);
+    }
+
+    /**
+     * An example client that uses a PRIDE Archive web service at the
+     * provided location to query for and retrieve data for public datasets.
+     *
+     * @param baseUrl the base URL of the web service, see {@link #DEFAULT_BASE_URL}.
+     * @param transport the Transport to send the service requests with.
+     * @param executor the Executor to run the requests of the asynchronous
+     *                 methods on, e.g. {@link VirtualThreads#newExecutor(String)}
+     *                 to run each of them on a virtual thread. If null, the client
+     *                 creates (and on close shuts down) its own pool of daemon threads.
+     */
+    public WsClient(String baseUrl, Transport transport, Executor executor) {
+        this(baseUrl, transport, executor, false);
+    }
+
+    /**
+     * An example client that uses a PRIDE Archive web service at the
+     * provided location to query for and retrieve data for public datasets.
+     *
+     * With useAfterburner the responses are mapped onto the data model by
+     * bytecode generated with Jackson's Afterburner module rather than
+     * through reflection, which mostly pays off when mapping large file
+     * lists. The module is an optional dependency, if it is not on the class
+     * path or fails to map the data model correctly, the client silently
+     * falls back to reflection, see {@link #isUsingAfterburner()}.
+     *
+     * @param baseUrl the base URL of the web service, see {@link #DEFAULT_BASE_URL}.
+     * @param transport the Transport to send the service requests with.
+     * @param executor the Executor to run the requests of the asynchronous
+     *                 methods on. If null, the client creates (and on close
+     *                 shuts down) its own pool of daemon threads.
+     * @param useAfterburner true to map the responses with generated bytecode.
+     */
+    public WsClient(String baseUrl, Transport transport, Executor executor, boolean useAfterburner) {
+        // the service paths are appended to the base URL, so we drop a trailing slash
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.transport = transport;
+        this.ownsExecutor = executor == null;
+        this.executor = executor != null ? executor : Executors.newCachedThreadPool(new DaemonThreadFactory("pride-ws-client"));
+        ObjectMapper afterburnerMapper = useAfterburner ? createObjectMapper() : null;
+        if (afterburnerMapper != null && Afterburner.register(afterburnerMapper) && canMapModel(afterburnerMapper)) {
+            objectMapper = afterburnerMapper;
+            afterburner = true;
+        } else {
+            // a module can't be unregistered, so we start over with a fresh mapper
+            objectMapper = createObjectMapper();
+            afterburner = false;
+        }
+        // the readers take over the configuration of the mapper at the time
+        // they are built, so they have to be built once it is complete
+        Map<Class<?>, ObjectReader> modelReaders = new HashMap<>();
+        for (Class<?> type : MODEL_TYPES) {
+            modelReaders.put(type, objectMapper.reader(type));
+        }
+        readers = Collections.unmodifiableMap(modelReaders);
+    }
+
+    /**
+     * @return true if the responses are mapped with bytecode generated by the
+     *         Afterburner module, false if they are mapped through reflection.
+     */
+    public boolean isUsingAfterburner() {
+        return afterburner;
+    }
+
+    /**
+     * @return the base URL of the web service used by this client.
+     */
+    public String getBaseUrl() {
+        return baseUrl;
     }
 
     /**
@@ -60,9 +203,8 @@ public class WsClient {
      * @throws Exception
      */
     public FileDetailList getFilesForAssay(String assayAccession) throws Exception {
-        URL url = new URL("http://www.ebi.ac.uk/pride/ws/archive/file/list/assay/" + assayAccession);
-        String content = queryService(url);
-        return objectMapper.readValue(content, FileDetailList.class);
+        URL url = new URL(baseUrl + "/file/list/assay/" + assayAccession);
+        return queryService(url, FileDetailList.class);
     }
 
     /**
@@ -77,14 +219,132 @@ public class WsClient {
     public FileDetailList getFilesForProject(String projectAccession) throws Exception {
         // valid project accession have to start with 'PRD' for legacy PRIDE datasets or 'PXD' for ProteomeXchange datasets
         if (projectAccession.startsWith("PRD") || projectAccession.startsWith("PXD")) {
-            URL url = new URL("http://www.ebi.ac.uk/pride/ws/archive/file/list/project/" + projectAccession);
-            String content = queryService(url);
-            return objectMapper.readValue(content, FileDetailList.class);
+            URL url = new URL(baseUrl + "/file/list/project/" + projectAccession);
+            return queryService(url, FileDetailList.class);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Method to retrieve a projection of the list of Files for a given
+     * assay accession, see {@link #getFilesForProject(String, Fields...)}.
+     *
+     * @param assayAccession the accession of the PRIDE assay.
+     * @param fields the file properties to retrieve, none for all of them.
+     * @return A FileDetailList with only the selected details of the files
+     *        associated to the assay accession.
+     * @throws Exception
+     */
+    public FileDetailList getFilesForAssay(String assayAccession, Fields... fields) throws Exception {
+        URL url = new URL(baseUrl + "/file/list/assay/" + assayAccession);
+        return queryServiceForFiles(url, fields);
+    }
+
+    /**
+     * Method to retrieve a projection of the list of Files for a given
+     * project accession.
+     *
+     * Only the selected properties of the files are mapped, all others
+     * are skipped while parsing and stay unset. For projects with many
+     * files this is much faster and creates much less garbage than
+     * retrieving the complete file details, e.g. to only list the names.
+     *
+     * @param projectAccession the accession of the PRIDE project.
+     * @param fields the file properties to retrieve, none for all of them.
+     * @return A FileDetailList with only the selected details of the files
+     *        associated to the project accession.
+     * @throws Exception
+     */
+    public FileDetailList getFilesForProject(String projectAccession, Fields... fields) throws Exception {
+        // valid project accession have to start with 'PRD' for legacy PRIDE datasets or 'PXD' for ProteomeXchange datasets
+        if (projectAccession.startsWith("PRD") || projectAccession.startsWith("PXD")) {
+            URL url = new URL(baseUrl + "/file/list/project/" + projectAccession);
+            return queryServiceForFiles(url, fields);
         } else {
             return null;
         }
     }
 
+    /**
+     * Method to process the Files of a given assay accession one at a time,
+     * see {@link #streamFilesForProject(String, Fields...)}.
+     *
+     * @param assayAccession the accession of the PRIDE assay.
+     * @param action called with each file, on the calling thread.
+     * @param fields the file properties to retrieve, none for all of them.
+     * @throws Exception
+     */
+    public void getFilesForAssay(String assayAccession, Consumer<? super FileDetail> action,
+                                 Fields... fields) throws Exception {
+        URL url = new URL(baseUrl + "/file/list/assay/" + assayAccession);
+        forEachFile(url, action, fields);
+    }
+
+    /**
+     * Method to process the Files of a given project accession one at a time,
+     * see {@link #streamFilesForProject(String, Fields...)}.
+     *
+     * @param projectAccession the accession of the PRIDE project.
+     * @param action called with each file, on the calling thread.
+     * @param fields the file properties to retrieve, none for all of them.
+     * @throws Exception
+     */
+    public void getFilesForProject(String projectAccession, Consumer<? super FileDetail> action,
+                                   Fields... fields) throws Exception {
+        // valid project accession have to start with 'PRD' for legacy PRIDE datasets or 'PXD' for ProteomeXchange datasets
+        if (projectAccession.startsWith("PRD") || projectAccession.startsWith("PXD")) {
+            URL url = new URL(baseUrl + "/file/list/project/" + projectAccession);
+            forEachFile(url, action, fields);
+        }
+    }
+
+    /**
+     * Method to stream the Files of a given assay accession as they are
+     * received, see {@link #streamFilesForProject(String, Fields...)}.
+     *
+     * @param assayAccession the accession of the PRIDE assay.
+     * @param fields the file properties to retrieve, none for all of them.
+     * @return a sequential Stream of the files associated to the assay
+     *         accession, which has to be closed.
+     * @throws Exception
+     */
+    public Stream<FileDetail> streamFilesForAssay(String assayAccession, Fields... fields) throws Exception {
+        URL url = new URL(baseUrl + "/file/list/assay/" + assayAccession);
+        return stream(openFiles(url, fields));
+    }
+
+    /**
+     * Method to stream the Files of a given project accession as they are
+     * received.
+     *
+     * Unlike the FileDetailList of {@link #getFilesForProject(String)},
+     * the files are parsed from the response one at a time as the stream
+     * is consumed, so the memory used stays the same regardless of the
+     * number of files of the project, and processing the first files
+     * overlaps with the download of the rest. The stream holds on to the
+     * response (and its connection) until it is consumed completely or
+     * closed, so it should be used in a try-with-resources statement.
+     * Failures to read the response are thrown as an UncheckedIOException
+     * by the stream's terminal operation.
+     *
+     * @param projectAccession the accession of the PRIDE project.
+     * @param fields the file properties to retrieve, none for all of them.
+     * @return a sequential Stream of the files associated to the project
+     *         accession (empty for an invalid project accession), which has
+     *         to be closed.
+     * @throws Exception in case the request failed.
+     */
+    public Stream<FileDetail> streamFilesForProject(String projectAccession, Fields... fields) throws Exception {
+        // valid project accession have to start with 'PRD' for legacy PRIDE datasets or 'PXD' for ProteomeXchange datasets
+        if (projectAccession.startsWith("PRD") || projectAccession.startsWith("PXD")) {
+            URL url = new URL(baseUrl + "/file/list/project/" + projectAccession);
+            return stream(openFiles(url, fields));
+        } else {
+            return Stream.empty();
+        }
+    }
+
     /**
      * Method to retrieve details for a specific project/dataset.
      *
@@ -93,9 +353,8 @@ public class WsClient {
      * @throws Exception
      */
     public ProjectDetail getProjectDetails(String projectAccession) throws Exception {
-        URL url = new URL("http://www.ebi.ac.uk/pride/ws/archive/project/" + projectAccession);
-        String content = queryService(url);
-        return objectMapper.readValue(content, ProjectDetail.class);
+        URL url = new URL(baseUrl + "/project/" + projectAccession);
+        return queryService(url, ProjectDetail.class);
     }
 
     /**
@@ -106,9 +365,8 @@ public class WsClient {
      * @throws Exception
      */
     public AssayDetail getAssayDetails(String assayAccession) throws Exception {
-        URL url = new URL("http://www.ebi.ac.uk/pride/ws/archive/assay/" + assayAccession);
-        String content = queryService(url);
-        return objectMapper.readValue(content, AssayDetail.class);
+        URL url = new URL(baseUrl + "/assay/" + assayAccession);
+        return queryService(url, AssayDetail.class);
     }
 
     /**
@@ -119,9 +377,8 @@ public class WsClient {
      * @throws Exception
      */
     public AssayDetailList getAssayDetailForProject(String projectAccession) throws Exception {
-        URL url = new URL("http://www.ebi.ac.uk/pride/ws/archive/assay/list/project/" + projectAccession);
-        String content = queryService(url);
-        return objectMapper.readValue(content, AssayDetailList.class);
+        URL url = new URL(baseUrl + "/assay/list/project/" + projectAccession);
+        return queryService(url, AssayDetailList.class);
     }
 
     /**
@@ -137,11 +394,148 @@ public class WsClient {
      */
     public ProjectSummaryList queryForProjects(Set<String> keywords, Integer page, Integer show) throws Exception {
         String query = createQuery(keywords, page, show);
-        URL url = new URL("http://www.ebi.ac.uk/pride/ws/archive/project/list" + query);
-        String content = queryService(url);
-        return objectMapper.readValue(content, ProjectSummaryList.class);
+        URL url = new URL(baseUrl + "/project/list" + query);
+        return queryService(url, ProjectSummaryList.class);
      }
 
+    /**
+     * Method to retrieve all projects/datasets which are annotated with
+     * specific keywords at once.
+     *
+     * The number of matching projects is counted first, which allows to
+     * request all result pages concurrently instead of one after the other.
+     * The pages are merged back in page order, so the result is the same as
+     * retrieving the pages sequentially. If a page fails, no further pages
+     * are requested and the failure is thrown once the pages in flight are done.
+     *
+     * @param keywords a Set of keyword Strings to query for.
+     * @param pageSize the number of results to retrieve per page.
+     * @param maxInFlight the maximum number of page requests in flight.
+     * @return a ProjectSummaryList with basic details of all projects
+     *         matching the query keywords.
+     * @throws Exception the exception the first failed page failed with.
+     */
+    public ProjectSummaryList queryForAllProjects(Set<String> keywords, int pageSize, int maxInFlight) throws Exception {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize has to be positive: " + pageSize);
+        }
+        long count = countProjects(keywords);
+        int pageCount = (int) ((count + pageSize - 1) / pageSize);
+
+        InFlightLimit inFlightLimit = new InFlightLimit(maxInFlight);
+        List<CompletableFuture<ProjectSummaryList>> pages = new ArrayList<>(pageCount);
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        for (int page = 0; page < pageCount; page++) {
+            if (failed.isDone()) {
+                // no use requesting the other pages, the result would be incomplete
+                break;
+            }
+            int currentPage = page;
+            pages.add(inFlightLimit.submit(() -> {
+                if (failed.isDone()) {
+                    // a page failed while we waited for a slot
+                    CompletableFuture<ProjectSummaryList> skipped = new CompletableFuture<>();
+                    skipped.cancel(false);
+                    return skipped;
+                }
+                // the failure is noted before the page releases its slot
+                return queryForProjectsAsync(keywords, currentPage, pageSize).whenComplete((value, error) -> {
+                    if (error != null) {
+                        failed.complete(null);
+                    }
+                });
+            }));
+        }
+
+        List<ProjectSummary> projects = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE));
+        Exception failure = null;
+        for (CompletableFuture<ProjectSummaryList> page : pages) {
+            // the pages in flight are waited for, so none is left running when we return
+            try {
+                ProjectSummaryList pageList = page.join();
+                if (pageList != null && pageList.getList() != null) {
+                    projects.addAll(pageList.getList());
+                }
+            } catch (CompletionException | CancellationException e) {
+                if (failure == null) {
+                    // report the failure of the page request itself
+                    failure = unwrap(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        ProjectSummaryList result = new ProjectSummaryList();
+        result.setList(projects);
+        return result;
+    }
+
+    /**
+     * Method to retrieve the details of many projects/datasets at once.
+     *
+     * Duplicate accessions are looked up only once. The lookups are sent
+     * concurrently, with up to maxInFlight of them in flight at any time,
+     * and go through the client's transport, so its caches are used. A
+     * failed lookup is reported in the result of its accession and does not
+     * abort the other lookups.
+     *
+     * @param projectAccessions the accessions of the PRIDE projects.
+     * @param maxInFlight the maximum number of lookups in flight.
+     * @return the result of each distinct accession, in the order of the given accessions.
+     * @throws InterruptedException if interrupted while waiting for the lookups.
+     */
+    public Map<String, BatchResult<ProjectDetail>> getProjectDetails(Collection<String> projectAccessions,
+                                                                     int maxInFlight) throws InterruptedException {
+        return batch(projectAccessions, maxInFlight, this::getProjectDetailsAsync);
+    }
+
+    /**
+     * Method to retrieve the details of many projects/datasets at once,
+     * handing out each result as soon as it is available, see
+     * {@link #getProjectDetails(Collection, int)}.
+     *
+     * @param projectAccessions the accessions of the PRIDE projects.
+     * @param maxInFlight the maximum number of lookups in flight.
+     * @param consumer receives the result of each distinct accession in the
+     *                 order the lookups complete, on the calling thread.
+     * @throws InterruptedException if interrupted while waiting for the lookups.
+     */
+    public void getProjectDetails(Collection<String> projectAccessions, int maxInFlight,
+                                  Consumer<? super BatchResult<ProjectDetail>> consumer) throws InterruptedException {
+        batch(projectAccessions, maxInFlight, this::getProjectDetailsAsync, consumer);
+    }
+
+    /**
+     * Method to retrieve the details of many assays at once, see
+     * {@link #getProjectDetails(Collection, int)}.
+     *
+     * @param assayAccessions the accessions of the PRIDE assays.
+     * @param maxInFlight the maximum number of lookups in flight.
+     * @return the result of each distinct accession, in the order of the given accessions.
+     * @throws InterruptedException if interrupted while waiting for the lookups.
+     */
+    public Map<String, BatchResult<AssayDetail>> getAssayDetails(Collection<String> assayAccessions,
+                                                                 int maxInFlight) throws InterruptedException {
+        return batch(assayAccessions, maxInFlight, this::getAssayDetailsAsync);
+    }
+
+    /**
+     * Method to retrieve the details of many assays at once, handing out
+     * each result as soon as it is available, see
+     * {@link #getProjectDetails(Collection, int)}.
+     *
+     * @param assayAccessions the accessions of the PRIDE assays.
+     * @param maxInFlight the maximum number of lookups in flight.
+     * @param consumer receives the result of each distinct accession in the
+     *                 order the lookups complete, on the calling thread.
+     * @throws InterruptedException if interrupted while waiting for the lookups.
+     */
+    public void getAssayDetails(Collection<String> assayAccessions, int maxInFlight,
+                                Consumer<? super BatchResult<AssayDetail>> consumer) throws InterruptedException {
+        batch(assayAccessions, maxInFlight, this::getAssayDetailsAsync, consumer);
+    }
+
     /**
      * Method to count the projects/datasets which
      * are annotated with specific keywords.
@@ -152,10 +546,280 @@ public class WsClient {
      */
     public long countProjects(Set<String> keywords) throws Exception {
         String query = createQuery(keywords, null, null);
-        URL url = new URL("http://www.ebi.ac.uk/pride/ws/archive/project/count" + query);
-        String content = queryService(url);
-        // since we use a count query the result should be parsed into a long
-        return Long.parseLong(content);
+        URL url = new URL(baseUrl + "/project/count" + query);
+        return queryServiceForCount(url);
+    }
+
+    /**
+     * Method to count the projects/datasets for many sets of keywords at
+     * once, e.g. to poll the counts of a number of keyword combinations.
+     *
+     * The counts are requested concurrently, with up to maxInFlight of them
+     * in flight at any time. If a count fails, no further counts are
+     * requested and the failure is thrown once the counts in flight are done.
+     *
+     * @param keywordSets the Sets of keyword Strings to query for.
+     * @param maxInFlight the maximum number of counts in flight.
+     * @return the number of projects matching each Set of keywords, in the
+     *         order of the given Sets.
+     * @throws Exception the exception the first failed count failed with.
+     */
+    public long[] countProjects(List<? extends Set<String>> keywordSets, int maxInFlight) throws Exception {
+        InFlightLimit inFlightLimit = new InFlightLimit(maxInFlight);
+        List<CompletableFuture<Long>> counts = new ArrayList<>(keywordSets.size());
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        for (Set<String> keywords : keywordSets) {
+            if (failed.isDone()) {
+                break;
+            }
+            counts.add(inFlightLimit.submit(() -> {
+                if (failed.isDone()) {
+                    // a count failed while we waited for a slot
+                    CompletableFuture<Long> skipped = new CompletableFuture<>();
+                    skipped.cancel(false);
+                    return skipped;
+                }
+                // the failure is noted before the count releases its slot
+                return countProjectsAsync(keywords).whenComplete((value, error) -> {
+                    if (error != null) {
+                        failed.complete(null);
+                    }
+                });
+            }));
+        }
+        long[] results = new long[keywordSets.size()];
+        Exception failure = null;
+        for (int i = 0; i < counts.size(); i++) {
+            try {
+                results[i] = counts.get(i).join();
+            } catch (CompletionException | CancellationException e) {
+                if (failure == null) {
+                    failure = unwrap(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Method to iterate over all projects/datasets which are annotated
+     * with specific keywords, without having to page through the results.
+     *
+     * The pages of the result are retrieved lazily as the iteration
+     * progresses, the next page always being prefetched while the current
+     * one is consumed. Failures to retrieve a page are thrown as a
+     * CompletionException from the iterator's hasNext()/next() methods.
+     *
+     * @param keywords a Set of keyword Strings to query for.
+     * @param pageSize the number of results to retrieve per page.
+     * @return an Iterator over the basic details of all matching projects.
+     */
+    public Iterator<ProjectSummary> iterateProjects(Set<String> keywords, int pageSize) {
+        return new ProjectSummaryIterator(this, keywords, pageSize);
+    }
+
+    /**
+     * Method to stream all projects/datasets which are annotated with
+     * specific keywords, see {@link #iterateProjects(Set, int)}.
+     *
+     * Closing the stream discards a page that is still being prefetched.
+     *
+     * @param keywords a Set of keyword Strings to query for.
+     * @param pageSize the number of results to retrieve per page.
+     * @return a sequential Stream of the basic details of all matching projects.
+     */
+    public Stream<ProjectSummary> streamProjects(Set<String> keywords, int pageSize) {
+        ProjectSummaryIterator iterator = new ProjectSummaryIterator(this, keywords, pageSize);
+        Spliterator<ProjectSummary> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(iterator::cancel);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getFilesForAssay(String)}.
+     *
+     * @param assayAccession the accession of the PRIDE assay.
+     * @return a future completed with the FileDetailList of the assay.
+     */
+    public CompletableFuture<FileDetailList> getFilesForAssayAsync(String assayAccession) {
+        return async(() -> getFilesForAssay(assayAccession));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getFilesForProject(String)}.
+     *
+     * @param projectAccession the accession of the PRIDE project.
+     * @return a future completed with the FileDetailList of the project
+     *         (or null for an invalid project accession).
+     */
+    public CompletableFuture<FileDetailList> getFilesForProjectAsync(String projectAccession) {
+        return async(() -> getFilesForProject(projectAccession));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getFilesForProject(String, Fields...)}.
+     *
+     * @param projectAccession the accession of the PRIDE project.
+     * @param fields the file properties to retrieve, none for all of them.
+     * @return a future completed with the FileDetailList of the project
+     *         (or null for an invalid project accession).
+     */
+    public CompletableFuture<FileDetailList> getFilesForProjectAsync(String projectAccession, Fields... fields) {
+        return async(() -> getFilesForProject(projectAccession, fields));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getProjectDetails(String)}.
+     *
+     * @param projectAccession the accession of the PRIDE project.
+     * @return a future completed with the ProjectDetail of the project.
+     */
+    public CompletableFuture<ProjectDetail> getProjectDetailsAsync(String projectAccession) {
+        return async(() -> getProjectDetails(projectAccession));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getAssayDetails(String)}.
+     *
+     * @param assayAccession the accession of the PRIDE assay.
+     * @return a future completed with the AssayDetail of the assay.
+     */
+    public CompletableFuture<AssayDetail> getAssayDetailsAsync(String assayAccession) {
+        return async(() -> getAssayDetails(assayAccession));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getAssayDetailForProject(String)}.
+     *
+     * @param projectAccession the accession of the PRIDE project.
+     * @return a future completed with the AssayDetailList of the project.
+     */
+    public CompletableFuture<AssayDetailList> getAssayDetailForProjectAsync(String projectAccession) {
+        return async(() -> getAssayDetailForProject(projectAccession));
+    }
+
+    /**
+     * Asynchronous variant of {@link #queryForProjects(Set, Integer, Integer)}.
+     *
+     * @param keywords a Set of keyword Strings to query for.
+     * @param page the page of the result to retrieve.
+     * @param show the number of results to retrieve per page.
+     * @return a future completed with the ProjectSummaryList of the page.
+     */
+    public CompletableFuture<ProjectSummaryList> queryForProjectsAsync(Set<String> keywords, Integer page, Integer show) {
+        return async(() -> queryForProjects(keywords, page, show));
+    }
+
+    /**
+     * Asynchronous variant of {@link #countProjects(Set)}.
+     *
+     * @param keywords a Set of keyword Strings to query for.
+     * @return a future completed with the number of matching projects.
+     */
+    public CompletableFuture<Long> countProjectsAsync(Set<String> keywords) {
+        return async(() -> countProjects(keywords));
+    }
+
+    /**
+     * Runs a (blocking) request on the client's executor.
+     *
+     * The returned future is completed with the result of the request, or
+     * exceptionally with the exception the request failed with.
+     *
+     * @param request the request to run.
+     * @return the future result of the request.
+     */
+    private <T> CompletableFuture<T> async(Callable<T> request) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(request.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Looks up a batch of accessions and collects the results.
+     *
+     * @param accessions the accessions to look up.
+     * @param maxInFlight the maximum number of lookups in flight.
+     * @param lookup starts the asynchronous lookup of an accession.
+     * @return the result of each distinct accession, in the order of the given accessions.
+     */
+    private <T> Map<String, BatchResult<T>> batch(Collection<String> accessions, int maxInFlight,
+                                                   Function<String, CompletableFuture<T>> lookup)
+            throws InterruptedException {
+        Map<String, BatchResult<T>> results = new LinkedHashMap<>();
+        // reserve the entries, so the map keeps the order of the accessions rather than of the lookups
+        for (String accession : accessions) {
+            results.put(accession, null);
+        }
+        batch(results.keySet(), maxInFlight, lookup, result -> results.put(result.getAccession(), result));
+        return results;
+    }
+
+    /**
+     * Looks up a batch of accessions, keeping up to maxInFlight lookups in
+     * flight and handing out the results on the calling thread as they complete.
+     *
+     * @param accessions the accessions to look up.
+     * @param maxInFlight the maximum number of lookups in flight.
+     * @param lookup starts the asynchronous lookup of an accession.
+     * @param consumer receives the result of each distinct accession.
+     */
+    private <T> void batch(Collection<String> accessions, int maxInFlight,
+                           Function<String, CompletableFuture<T>> lookup,
+                           Consumer<? super BatchResult<T>> consumer) throws InterruptedException {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight has to be positive: " + maxInFlight);
+        }
+        Iterator<String> pending = new LinkedHashSet<>(accessions).iterator();
+        BlockingQueue<BatchResult<T>> completed = new LinkedBlockingQueue<>();
+        int inFlight = 0;
+        while (pending.hasNext() || inFlight > 0) {
+            // keep the pipeline full, then hand out whatever has completed
+            while (pending.hasNext() && inFlight < maxInFlight) {
+                String accession = pending.next();
+                lookup.apply(accession).whenComplete((value, error) -> completed.add(error == null
+                        ? BatchResult.success(accession, value)
+                        : BatchResult.failure(accession, unwrap(error))));
+                inFlight++;
+            }
+            consumer.accept(completed.take());
+            inFlight--;
+        }
+    }
+
+    /**
+     * @param error the exception a future was completed with.
+     * @return the exception the request itself failed with.
+     */
+    private static Exception unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof Exception ? (Exception) cause : new ExecutionException(cause);
+    }
+
+    /**
+     * @param request a request sent asynchronously.
+     * @return the result of the request, once it completed.
+     * @throws Exception the exception the request itself failed with.
+     */
+    private static <T> T join(CompletableFuture<T> request) throws Exception {
+        try {
+            return request.join();
+        } catch (CompletionException | CancellationException e) {
+            throw unwrap(e);
+        }
     }
 
     /**
@@ -190,34 +854,282 @@ public class WsClient {
 
     /**
      * this method takes care of sending the request to the provided URL and
-     * retrieving the response into a String.
+     * mapping the JSON response onto the requested type of the data model.
+     *
+     * The response is parsed directly from the stream as it is received,
+     * so the JSON is never held in memory as a whole.
      *
      * @param url the web service GET URL for the request.
-     * @return a String containing the service response.
+     * @param type the class of the data model to map the response to.
+     * @return the service response mapped onto the requested type.
      * @throws Exception
      */
-    private String queryService(URL url) throws Exception {
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Accept", "application/json");
+    private <T> T queryService(URL url, Class<T> type) throws Exception {
+        return type.cast(coalesce(url, () -> {
+            // closing the response (instead of disconnecting) allows the
+            // transport to reuse the connection for the next request
+            try (Transport.Response response = openResponse(url)) {
+                return readerFor(type).readValue(response.getBody());
+            }
+        }));
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        // In case the used Java object model does not fully match the
+        // returned JSON data model, the data mapper could produce errors.
+        // In order to avoid this we can instruct the mapper to ignore
+        // unrecognised fields. This may be a good practise to make the
+        // code more resilient against small model changes and the client
+        // code can concentrate on the data it really needs, which makes
+        // the code more readable and maintainable.
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return objectMapper;
+    }
 
-        if (conn.getResponseCode() != 200) {
-            // this can be handled better, in order to allow the application to
-            // report and react to connection/response issues
-            // different error codes should be taken into account
-            // and a general exception handling added
-            throw new Exception("Failed : HTTP error code : " + conn.getResponseCode());
+    /**
+     * Checks that a mapper with a module registered can map all types of the
+     * data model, e.g. that the bytecode generated by Afterburner can access
+     * the model classes on this JVM.
+     *
+     * @param mapper the mapper to check.
+     * @return true if the mapper mapped a sample of each model type correctly.
+     */
+    private static boolean canMapModel(ObjectMapper mapper) {
+        try {
+            // building the deserializers is where code generation would fail
+            for (Class<?> type : MODEL_TYPES) {
+                mapper.reader(type).readValue("{}");
+            }
+            FileDetail file = mapper.reader(FileDetail.class)
+                    .readValue("{\"fileName\":\"sample.raw\",\"fileSize\":42,\"projectAccession\":\"PXD000001\"}");
+            return "sample.raw".equals(file.getFileName()) && file.getFileSize() == 42
+                    && "PXD000001".equals(file.getProjectAccession());
+        } catch (IOException | RuntimeException | LinkageError e) {
+            return false;
         }
+    }
 
-        BufferedReader br = new BufferedReader(new InputStreamReader((conn.getInputStream())));
-        String currentLine;
-        StringBuilder sb = new StringBuilder();
-        while ((currentLine = br.readLine()) != null) {
-            sb.append(currentLine);
+    /**
+     * @param type a type of the data model.
+     * @return the reader mapping JSON onto the type.
+     */
+    private ObjectReader readerFor(Class<?> type) {
+        ObjectReader reader = readers.get(type);
+        return reader != null ? reader : objectMapper.reader(type);
+    }
+
+    /**
+     * this method takes care of sending the request for a file list to the
+     * provided URL and mapping the selected fields of the files onto the
+     * data model.
+     *
+     * @param url the web service GET URL for the request.
+     * @param fields the fields of the files to map, none for all of them.
+     * @return the file list, with only the selected fields set on its files.
+     * @throws Exception
+     */
+    private FileDetailList queryServiceForFiles(URL url, Fields... fields) throws Exception {
+        if (fields.length == 0) {
+            return queryService(url, FileDetailList.class);
         }
-        conn.disconnect();
+        Set<Fields> selected = EnumSet.copyOf(Arrays.asList(fields));
+        // requests for different projections of the same list can't share a response
+        return (FileDetailList) coalesce(url + "#" + selected, () -> {
+            try (Transport.Response response = openResponse(url);
+                 JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+                return FileDetailParser.readList(parser, selected);
+            }
+        });
+    }
 
-        return sb.toString();
+    /**
+     * this method takes care of sending the request for a file list to the
+     * provided URL and positioning a parser at the start of its files.
+     *
+     * Streamed responses can't be shared, so the request is never coalesced.
+     *
+     * @param url the web service GET URL for the request.
+     * @param fields the fields of the files to map, none for all of them.
+     * @return an iterator reading the files from the open response.
+     * @throws Exception
+     */
+    private FileDetailIterator openFiles(URL url, Fields... fields) throws Exception {
+        Set<Fields> selected = fields.length > 0 ? EnumSet.copyOf(Arrays.asList(fields)) : null;
+        Transport.Response response = openResponse(url);
+        JsonParser parser = null;
+        try {
+            parser = objectMapper.getFactory().createParser(response.getBody());
+            return new FileDetailIterator(response, parser, selected, readerFor(FileDetail.class));
+        } catch (IOException | RuntimeException e) {
+            if (parser != null) {
+                parser.close();
+            }
+            response.close();
+            throw e;
+        }
+    }
+
+    private void forEachFile(URL url, Consumer<? super FileDetail> action, Fields... fields) throws Exception {
+        try (FileDetailIterator files = openFiles(url, fields)) {
+            while (files.hasNext()) {
+                action.accept(files.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Stream<FileDetail> stream(FileDetailIterator files) {
+        Spliterator<FileDetail> spliterator = Spliterators.spliteratorUnknownSize(files,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                files.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * this method takes care of sending the request for a count to the
+     * provided URL and parsing the plain text response into a long.
+     *
+     * @param url the web service GET URL for the request.
+     * @return the count the service responded with.
+     * @throws Exception
+     */
+    private long queryServiceForCount(URL url) throws Exception {
+        return (Long) coalesce(url, () -> {
+            try (Transport.Response response = openResponse(url)) {
+                return parseCount(response.getBody());
+            }
+        });
+    }
+
+    /**
+     * Parses a count, optionally surrounded by whitespace, directly from the
+     * bytes of a response.
+     *
+     * The transports read the response through a buffer of their own, so
+     * the digits are taken from that buffer one at a time and accumulated
+     * into the count, without decoding the response into characters or a
+     * String first.
+     *
+     * @param in the body of the count response.
+     * @return the count.
+     * @throws IOException in case the response could not be read or is not a count.
+     */
+    private static long parseCount(InputStream in) throws IOException {
+        long count = 0;
+        int digits = 0;
+        boolean trailing = false;
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b >= '0' && b <= '9' && !trailing) {
+                if (count > (Long.MAX_VALUE - (b - '0')) / 10) {
+                    throw new IOException("Count response exceeds the range of a long");
+                }
+                count = count * 10 + (b - '0');
+                digits++;
+            } else if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                // whitespace after the digits ends the count
+                trailing = digits > 0;
+            } else {
+                throw new IOException("Invalid count response, unexpected character: '" + (char) b + "'");
+            }
+        }
+        if (digits == 0) {
+            throw new IOException("Empty count response");
+        }
+        return count;
+    }
+
+    /**
+     * Executes a request for the provided URL, unless the same request is
+     * already in flight, in which case we wait for and share its result
+     * instead of calling the service again.
+     *
+     * Note that callers of concurrent identical requests therefore receive
+     * the same instance of the mapped response.
+     *
+     * @param url the web service GET URL for the request.
+     * @param request executes the request if there is none in flight.
+     * @return the result of the request.
+     * @throws Exception the exception the (shared) request failed with.
+     */
+    private Object coalesce(URL url, Callable<Object> request) throws Exception {
+        return coalesce(url.toString(), request);
+    }
+
+    /**
+     * @param key identifies the request, usually its URL.
+     * @param request executes the request if there is none in flight.
+     * @return the result of the request.
+     * @throws Exception the exception the (shared) request failed with.
+     */
+    private Object coalesce(String key, Callable<Object> request) throws Exception {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+
+        // the request is no longer in flight once it completes, so it is
+        // removed before waiting callers are released and later callers
+        // start a new request rather than picking up the finished one
+        try {
+            Object result = request.call();
+            inFlight.remove(key, call);
+            call.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the request to the provided URL and checks that the service
+     * responded successfully.
+     *
+     * @param url the web service GET URL for the request.
+     * @return the open response, which has to be closed by the caller.
+     * @throws HttpStatusException in case the service did not respond successfully.
+     * @throws Exception in case the request failed.
+     */
+    private Transport.Response openResponse(URL url) throws Exception {
+        Transport.Response response = transport.get(url, REQUEST_HEADERS);
+        if (response.getStatusCode() != 200) {
+            response.close();
+            // the status code (and the time the service asked us to wait before
+            // retrying, if any) allow the application to react to the failure,
+            // transient failures can be retried with a RetryingTransport
+            throw new HttpStatusException(url, response.getStatusCode(),
+                    RetryPolicy.parseRetryAfter(response.getHeader("Retry-After")));
+        }
+        return response;
+    }
+
+    /**
+     * Releases the resources held by the client's transport and, if it
+     * was created by the client, shuts down the executor.
+     *
+     * @throws IOException in case the transport could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+        transport.close();
     }
 
 
@@ -232,6 +1144,15 @@ public class WsClient {
         options.addOption(new Option("q", "query", true, "a query term (option can be given multiple times)" ));
         options.addOption(new Option("a", "assays", false, "for each project list the assays" ));
         options.addOption(new Option("f", "files", false, "for each project list the dataset files (may be a very long list)" ));
+        options.addOption(new Option("u", "url", true, "the base URL of the web service, default: " + DEFAULT_BASE_URL ));
+        options.addOption(new Option("j", "parallel", true, "the maximum number of assay/file list requests in flight, "
+                + "or 'auto' to adapt it to the service, default: 1 (one after the other)" ));
+        options.addOption(new Option("H", "http2", false, "use HTTP/2 if the service supports it, multiplexing all requests over one connection" ));
+        options.addOption(new Option("V", "virtual-threads", false, "run the parallel requests on virtual threads (Java 21 and later)" ));
+        options.addOption(new Option("r", "rate", true, "the maximum number of requests per second, default: no limit" ));
+        options.addOption(new Option("b", "afterburner", false, "map the responses with generated bytecode (needs jackson-module-afterburner)" ));
+        options.addOption(new Option("C", "cache-dir", true, "keep the responses in this directory and only download them again "
+                + "if they changed since an earlier run, default: no disk cache" ));
 
         // configurable variables that can be defined using command line arguments
         // we define sensible default values
@@ -243,6 +1164,14 @@ public class WsClient {
         boolean listFiles = false; // don't list files
         int page = 0; // the first result page
         int size = 5; // limit the number of results to 5
+        int parallel = 1; // request assay/file lists one after the other
+        boolean adaptive = false; // use a fixed number of parallel requests
+        double rate = 0; // don't limit the request rate
+        boolean http2 = false; // use HTTP/1.1 connections
+        boolean virtualThreads = false; // use a pool of platform threads
+        boolean afterburner = false; // map the responses through reflection
+        String cacheDir = null; // don't keep the responses on disk
+        String baseUrl = DEFAULT_BASE_URL; // use the public PRIDE Archive web service
 
         // process the command line arguments
         CommandLineParser parser = new BasicParser();
@@ -287,6 +1216,36 @@ public class WsClient {
             if (line.hasOption("files")) {
                 listFiles = true;
             }
+            if (line.hasOption("url")) {
+                baseUrl = line.getOptionValue("url");
+            }
+            if (line.hasOption("parallel") && line.getOptionValue("parallel").equals("auto")) {
+                adaptive = true;
+                parallel = AdaptiveConcurrencyTransport.DEFAULT_INITIAL_LIMIT;
+            } else if (line.hasOption("parallel")) {
+                parallel = Integer.parseInt(line.getOptionValue("parallel"));
+                if (parallel < 1) {
+                    throw new ParseException("the number of parallel requests has to be positive: " + parallel);
+                }
+            }
+            if (line.hasOption("http2")) {
+                http2 = true;
+            }
+            if (line.hasOption("virtual-threads")) {
+                virtualThreads = true;
+            }
+            if (line.hasOption("afterburner")) {
+                afterburner = true;
+            }
+            if (line.hasOption("cache-dir")) {
+                cacheDir = line.getOptionValue("cache-dir");
+            }
+            if (line.hasOption("rate")) {
+                rate = Double.parseDouble(line.getOptionValue("rate"));
+                if (rate <= 0) {
+                    throw new ParseException("the request rate has to be positive: " + rate);
+                }
+            }
 
         } catch( ParseException exp ) {
             // oops, something went wrong
@@ -298,7 +1257,42 @@ public class WsClient {
 
         // now that we have the required options, we can implement the actual client
         // using some example queries and printing parts of the results to stdout
-        WsClient client = new WsClient();
+        // allow as many connections as there can be requests in flight
+        Transport transport;
+        if (http2) {
+            // HTTP/2 needs no connection per request in flight
+            transport = new HttpClientTransport();
+        } else if (adaptive) {
+            transport = new PooledTransport(AdaptiveConcurrencyTransport.DEFAULT_MAX_LIMIT);
+        } else {
+            transport = new PooledTransport(Math.max(parallel, PooledTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST));
+        }
+        if (cacheDir != null) {
+            // below the decompression, so the cache keeps the smaller compressed bodies
+            transport = new DiskCacheTransport(transport, Paths.get(cacheDir));
+        }
+        // ask for compressed responses, which mostly shrinks the large file lists
+        transport = new CompressingTransport(transport);
+        if (adaptive) {
+            transport = new AdaptiveConcurrencyTransport(transport);
+        }
+        if (rate > 0) {
+            // allow a burst of one request per parallel request
+            transport = new RateLimitedTransport(transport, new RateLimiter(rate, parallel));
+        }
+        // fail fast on endpoints that are down, before waiting for a rate or concurrency limit
+        transport = new CircuitBreakerTransport(transport);
+        Executor executor = null;
+        if (virtualThreads) {
+            if (!VirtualThreads.isSupported()) {
+                System.out.println("Virtual threads are not supported by this JVM, using platform threads instead");
+            }
+            executor = VirtualThreads.newExecutor("pride-ws-client");
+        }
+        WsClient client = new WsClient(baseUrl, transport, executor, afterburner);
+        if (afterburner && !client.isUsingAfterburner()) {
+            System.out.println("Afterburner is not available, mapping the responses through reflection instead");
+        }
 
         System.out.println("Search for datasets matching terms: " + queryTerms);
 
@@ -315,9 +1309,41 @@ public class WsClient {
                 System.exit(0);
             }
 
+            // if requested, we fan out the assay and file list requests for all projects
+            // of the page at once (with a bounded number of requests in flight), the
+            // results are then printed in the original project order as they arrive
+            // (we only print the names of the files, so that's all we let the client map)
+            List<ProjectSummary> projects = projectList.getList();
+            List<CompletableFuture<AssayDetailList>> assayLists = new ArrayList<>();
+            List<CompletableFuture<FileDetailList>> fileLists = new ArrayList<>();
+            if (adaptive) {
+                // the transport holds back the requests beyond its current limit
+                for (ProjectSummary projectSummary : projects) {
+                    String accession = projectSummary.getAccession();
+                    if (listAssays) {
+                        assayLists.add(client.getAssayDetailForProjectAsync(accession));
+                    }
+                    if (listFiles) {
+                        fileLists.add(client.getFilesForProjectAsync(accession, Fields.NAME));
+                    }
+                }
+            } else if (parallel > 1) {
+                InFlightLimit inFlightLimit = new InFlightLimit(parallel);
+                for (ProjectSummary projectSummary : projects) {
+                    String accession = projectSummary.getAccession();
+                    if (listAssays) {
+                        assayLists.add(inFlightLimit.submit(() -> client.getAssayDetailForProjectAsync(accession)));
+                    }
+                    if (listFiles) {
+                        fileLists.add(inFlightLimit.submit(() -> client.getFilesForProjectAsync(accession, Fields.NAME)));
+                    }
+                }
+            }
+
             // for each project that was returned by the service we print a quick summary
             // and possibly assay and file lists
-            for (ProjectSummary projectSummary : projectList.getList()) {
+            for (int i = 0; i < projects.size(); i++) {
+                ProjectSummary projectSummary = projects.get(i);
                 System.out.println();
                 System.out.println("Project: " + projectSummary.getAccession());
                 System.out.println("\tTitle:\t\t" + projectSummary.getTitle());
@@ -326,7 +1352,8 @@ public class WsClient {
                 System.out.println("\tTags:\t\t" + projectSummary.getProjectTags());
                 // list assays if requested
                 if (listAssays) {
-                    AssayDetailList assayList = client.getAssayDetailForProject(projectSummary.getAccession());
+                    AssayDetailList assayList = !assayLists.isEmpty() ? join(assayLists.get(i))
+                            : client.getAssayDetailForProject(projectSummary.getAccession());
                     System.out.println("\tProject assay list");
                     for (AssayDetail assayDetail : assayList.getList()) {
                         System.out.print("\t\tAssay:" + assayDetail.getAssayAccession());
@@ -335,11 +1362,13 @@ public class WsClient {
                 }
                 // list files if requested
                 if (listFiles) {
-                    FileDetailList files = client.getFilesForProject(projectSummary.getAccession());
                     System.out.println("\tProject file list");
-                    for (FileDetail file : files.getList()) {
-                        System.out.println("\t\t" + file.getFileName());
-
+                    Consumer<FileDetail> printFile = file -> System.out.println("\t\t" + file.getFileName());
+                    if (!fileLists.isEmpty()) {
+                        join(fileLists.get(i)).getList().forEach(printFile);
+                    } else {
+                        // one request at a time, so we print the files as they are received
+                        client.getFilesForProject(projectSummary.getAccession(), printFile, Fields.NAME);
                     }
                 }
             }
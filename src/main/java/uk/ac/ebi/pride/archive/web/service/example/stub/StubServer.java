@@ -0,0 +1,511 @@
+package uk.ac.ebi.pride.archive.web.service.example.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import uk.ac.ebi.pride.archive.web.service.example.RateLimiter;
+import uk.ac.ebi.pride.archive.web.service.example.VirtualThreads;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An embedded stand-in for the PRIDE Archive web service, built on the JDK's
+ * HTTP server, which serves synthetic project, assay and file data.
+ *
+ * It allows to run the client and its benchmarks fully offline. The latency
+ * of the responses and the size of the served data can be configured, and
+ * the server counts the requests and connections it received, so the effect
+ * of connection reuse can be observed.
+ *
+ * Run it standalone with:
+ *     java -cp ... uk.ac.ebi.pride.archive.web.service.example.stub.StubServer [port] [latency ms]
+ * and point the client at it with the -u/--url option.
+ */
+public class StubServer implements Closeable {
+
+    /**
+     * The path of the service on the stub server, the same as on the public service.
+     */
+    public static final String BASE_PATH = "/pride/ws/archive";
+
+    // smaller bodies are not worth compressing
+    private static final int MIN_COMPRESSED_SIZE = 1024;
+
+    static {
+        // the JDK server writes the response headers and body separately, on kept
+        // alive connections Nagle's algorithm would then delay every response by the
+        // client's delayed ACK. The setting is read once, when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private volatile long latencyMillis;
+    private volatile long latencyJitterMillis;
+    private volatile double slowResponseRate;
+    private volatile long slowResponseMillis;
+    private volatile double failureRate;
+    private volatile int failureStatusCode;
+    private volatile long failureRetryAfterSeconds = -1;
+    private volatile RateLimiter rateLimiter;
+    private volatile Semaphore capacity;
+    private volatile long queueTimeoutMillis;
+    private volatile String outagePath;
+    private volatile long outageStallMillis;
+    private volatile int projectCount = 1000;
+    private volatile int assaysPerProject = 10;
+    private volatile int filesPerProject = 100;
+    private volatile boolean compression = true;
+    private volatile long bytesPerSecond;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    // every connection comes from a different client port
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    // the generated responses, so large payloads are only generated once
+    private final ConcurrentMap<String, Payload> payloads = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a stub server on the loopback interface, which handles
+     * requests on as many threads as needed, virtual ones if supported.
+     *
+     * @param port the port to listen on, 0 to pick any free port.
+     * @throws IOException in case the server could not be created.
+     */
+    public StubServer(int port) throws IOException {
+        this(port, 0);
+    }
+
+    /**
+     * Creates a stub server on the loopback interface.
+     *
+     * @param port the port to listen on, 0 to pick any free port.
+     * @param threads the number of threads handling requests, 0 to use
+     *                as many (virtual, if supported) threads as needed.
+     * @throws IOException in case the server could not be created.
+     */
+    public StubServer(int port, int threads) throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = threads > 0 ? Executors.newFixedThreadPool(threads, runnable -> daemon(runnable, threadCount))
+                : VirtualThreads.newExecutor("pride-ws-stub");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.setExecutor(executor);
+        server.createContext(BASE_PATH, this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the base URL to create a client for the stub server with.
+     */
+    public String getBaseUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + BASE_PATH;
+    }
+
+    /**
+     * @param latency the time to wait before answering a request.
+     * @param jitter the maximum random time to wait in addition.
+     * @param unit the unit of latency and jitter.
+     */
+    public void setLatency(long latency, long jitter, TimeUnit unit) {
+        this.latencyMillis = unit.toMillis(latency);
+        this.latencyJitterMillis = unit.toMillis(jitter);
+    }
+
+    /**
+     * Makes a share of the responses stall, like a lossy network or an
+     * overloaded service node would.
+     *
+     * @param rate the share of the responses (between 0 and 1) to delay.
+     * @param delay the time to delay those responses by, in addition to the latency.
+     * @param unit the unit of the delay.
+     */
+    public void setSlowResponses(double rate, long delay, TimeUnit unit) {
+        this.slowResponseRate = rate;
+        this.slowResponseMillis = unit.toMillis(delay);
+    }
+
+    /**
+     * Makes a share of the requests fail, to test how the client copes with
+     * transient failures of the service.
+     *
+     * @param rate the share of the requests (between 0 and 1) to fail.
+     * @param statusCode the HTTP status code of the failed responses, e.g. 503.
+     * @param retryAfterSeconds the 'Retry-After' to send with the failed
+     *                          responses, -1 to send none.
+     */
+    public void setFailures(double rate, int statusCode, long retryAfterSeconds) {
+        this.failureRate = rate;
+        this.failureStatusCode = statusCode;
+        this.failureRetryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Throttles the requests like the public service does: requests
+     * exceeding the rate are answered with '429 Too Many Requests'.
+     *
+     * @param requestsPerSecond the maximum rate of requests, 0 for no limit.
+     * @param burst the maximum number of requests accepted at once.
+     */
+    public void setRateLimit(double requestsPerSecond, int burst) {
+        this.rateLimiter = requestsPerSecond > 0 ? new RateLimiter(requestsPerSecond, burst) : null;
+    }
+
+    /**
+     * Takes down the endpoints below a path, like a partial outage of the
+     * service: their requests stall and are then answered with '503 Service
+     * Unavailable', while all other requests are served as usual.
+     *
+     * @param path the part of the request path identifying the endpoints,
+     *             e.g. '/file/list/', or null to end the outage.
+     * @param stall the time to hold the requests before answering them.
+     * @param unit the unit of the stall.
+     */
+    public void setOutage(String path, long stall, TimeUnit unit) {
+        this.outageStallMillis = unit.toMillis(stall);
+        this.outagePath = path;
+    }
+
+    /**
+     * Limits the number of requests processed at the same time, like the
+     * worker pool of a real service. Requests beyond the capacity queue up,
+     * so their latency rises with the number of requests in flight. Requests
+     * that queued for too long are rejected with '503 Service Unavailable'.
+     *
+     * @param maxConcurrentRequests the number of requests processed at the
+     *                              same time, 0 for no limit.
+     * @param queueTimeout the time a request may wait to be processed.
+     * @param unit the unit of the queueTimeout.
+     */
+    public void setCapacity(int maxConcurrentRequests, long queueTimeout, TimeUnit unit) {
+        this.queueTimeoutMillis = unit.toMillis(queueTimeout);
+        this.capacity = maxConcurrentRequests > 0 ? new Semaphore(maxConcurrentRequests, true) : null;
+    }
+
+    /**
+     * @param projectCount the number of projects matching any project search.
+     */
+    public void setProjectCount(int projectCount) {
+        this.projectCount = projectCount;
+    }
+
+    /**
+     * @param assaysPerProject the number of assays listed for each project.
+     */
+    public void setAssaysPerProject(int assaysPerProject) {
+        this.assaysPerProject = assaysPerProject;
+    }
+
+    /**
+     * @param filesPerProject the number of files listed for each project.
+     */
+    public void setFilesPerProject(int filesPerProject) {
+        this.filesPerProject = filesPerProject;
+    }
+
+    /**
+     * @param compression true to compress responses for clients accepting a
+     *                    gzip or deflate 'Content-Encoding', which is the default.
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Limits the rate response bodies are sent at, like a slow network link.
+     *
+     * @param bytesPerSecond the maximum number of bytes sent per second and
+     *                       response, 0 for no limit.
+     */
+    public void setBandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * @return the number of requests received.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the number of connections opened by clients.
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * @return the number of response body bytes sent, after compression.
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Resets the request, connection and byte counts.
+     */
+    public void resetCounts() {
+        requestCount.set(0);
+        bytesSent.set(0);
+        connections.clear();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        connections.add(exchange.getRemoteAddress());
+        try {
+            RateLimiter limiter = rateLimiter;
+            if (limiter != null && !limiter.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 429, "text/plain", null, "Too many requests".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            String outage = outagePath;
+            if (outage != null && exchange.getRequestURI().getPath().contains(outage)) {
+                Thread.sleep(outageStallMillis);
+                send(exchange, 503, "text/plain", null, "Endpoint down".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            Semaphore workers = capacity;
+            if (workers != null) {
+                if (!workers.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    send(exchange, 503, "text/plain", null, "Overloaded".getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                try {
+                    pause();
+                } finally {
+                    workers.release();
+                }
+            } else {
+                pause();
+            }
+            Payload payload = payloadFor(exchange.getRequestURI());
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                if (failureRetryAfterSeconds >= 0) {
+                    exchange.getResponseHeaders().set("Retry-After", String.valueOf(failureRetryAfterSeconds));
+                }
+                send(exchange, failureStatusCode, "text/plain", null, "Injected failure".getBytes(StandardCharsets.UTF_8));
+            } else if (payload == null) {
+                send(exchange, 404, "text/plain", null, "Not found".getBytes(StandardCharsets.UTF_8));
+            } else if (payload.etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.getResponseHeaders().set("ETag", payload.etag);
+                exchange.sendResponseHeaders(304, -1);
+            } else if (compression && payload.body.length >= MIN_COMPRESSED_SIZE) {
+                sendCompressed(exchange, payload);
+            } else {
+                send(exchange, 200, payload.contentType, payload.etag, payload.body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            send(exchange, 500, "text/plain", null, String.valueOf(e).getBytes(StandardCharsets.UTF_8));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        long latency = latencyMillis;
+        if (latencyJitterMillis > 0) {
+            latency += ThreadLocalRandom.current().nextLong(latencyJitterMillis);
+        }
+        if (slowResponseRate > 0 && ThreadLocalRandom.current().nextDouble() < slowResponseRate) {
+            latency += slowResponseMillis;
+        }
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String contentType, String etag, byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            long bandwidth = bytesPerSecond;
+            if (bandwidth <= 0) {
+                out.write(body);
+            } else {
+                // send the body in chunks of about 10 ms worth of bandwidth
+                int chunk = (int) Math.max(1, Math.min(body.length, bandwidth / 100));
+                long start = System.nanoTime();
+                for (int offset = 0; offset < body.length; offset += chunk) {
+                    out.write(body, offset, Math.min(chunk, body.length - offset));
+                    out.flush();
+                    long due = start + TimeUnit.SECONDS.toNanos(offset + chunk) / bandwidth;
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        bytesSent.addAndGet(body.length);
+    }
+
+    private void sendCompressed(HttpExchange exchange, Payload payload) throws IOException {
+        String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        accepted = accepted != null ? accepted.toLowerCase() : "";
+        if (accepted.contains("gzip")) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            send(exchange, 200, payload.contentType, payload.etag, payload.gzipped());
+        } else if (accepted.contains("deflate")) {
+            exchange.getResponseHeaders().set("Content-Encoding", "deflate");
+            send(exchange, 200, payload.contentType, payload.etag, payload.deflated());
+        } else {
+            send(exchange, 200, payload.contentType, payload.etag, payload.body);
+        }
+    }
+
+    private Payload payloadFor(URI uri) {
+        String path = uri.getPath().substring(BASE_PATH.length());
+        Map<String, String> parameters = parameters(uri.getRawQuery());
+        // the payloads depend on the configuration, which is part of the key
+        String key = path + "?" + uri.getRawQuery() + "#" + projectCount + "/" + assaysPerProject + "/" + filesPerProject;
+        Payload payload = payloads.get(key);
+        if (payload == null) {
+            payload = generate(path, parameters);
+            if (payload != null) {
+                payloads.putIfAbsent(key, payload);
+            }
+        }
+        return payload;
+    }
+
+    private Payload generate(String path, Map<String, String> parameters) {
+        if (path.equals("/project/count")) {
+            return new Payload("text/plain", String.valueOf(projectCount));
+        } else if (path.equals("/project/list")) {
+            int page = Integer.parseInt(parameters.getOrDefault("page", "0"));
+            int show = Integer.parseInt(parameters.getOrDefault("show", "10"));
+            int first = Math.min(page * show, projectCount);
+            int entries = Math.min(show, projectCount - first);
+            return new Payload("application/json", SyntheticPayloads.projectSummaryList(first, entries));
+        } else if (path.startsWith("/file/list/project/")) {
+            return new Payload("application/json", SyntheticPayloads.fileDetailList(filesPerProject));
+        } else if (path.startsWith("/file/list/assay/")) {
+            int files = Math.max(1, filesPerProject / Math.max(1, assaysPerProject));
+            return new Payload("application/json", SyntheticPayloads.fileDetailList(files));
+        } else if (path.startsWith("/assay/list/project/")) {
+            return new Payload("application/json", SyntheticPayloads.assayDetailList(assaysPerProject));
+        } else if (path.startsWith("/assay/")) {
+            return new Payload("application/json", SyntheticPayloads.assayDetail(path.substring("/assay/".length())));
+        } else if (path.startsWith("/project/")) {
+            return new Payload("application/json", SyntheticPayloads.projectDetail(path.substring("/project/".length())));
+        }
+        return null;
+    }
+
+    private static Map<String, String> parameters(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int separator = parameter.indexOf('=');
+                if (separator > 0) {
+                    parameters.put(parameter.substring(0, separator), parameter.substring(separator + 1));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static Thread daemon(Runnable runnable, AtomicInteger threadCount) {
+        Thread thread = new Thread(runnable, "pride-ws-stub-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * A generated response body.
+     */
+    private static class Payload {
+
+        final String contentType;
+        final byte[] body;
+        final String etag;
+        // the compressed bodies, created when first requested
+        private volatile byte[] gzipped;
+        private volatile byte[] deflated;
+
+        Payload(String contentType, String content) {
+            this.contentType = contentType;
+            this.body = content.getBytes(StandardCharsets.UTF_8);
+            this.etag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+        }
+
+        byte[] gzipped() throws IOException {
+            if (gzipped == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+                try (OutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(body);
+                }
+                gzipped = out.toByteArray();
+            }
+            return gzipped;
+        }
+
+        byte[] deflated() throws IOException {
+            if (deflated == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+                try (OutputStream deflate = new DeflaterOutputStream(out)) {
+                    deflate.write(body);
+                }
+                deflated = out.toByteArray();
+            }
+            return deflated;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+        StubServer stub = new StubServer(port);
+        stub.setLatency(latency, 0, TimeUnit.MILLISECONDS);
+        stub.start();
+        System.out.println("Stub web service running at: " + stub.getBaseUrl());
+        // the request handling threads are daemons, so we keep the JVM alive here
+        Thread.currentThread().join();
+    }
+}
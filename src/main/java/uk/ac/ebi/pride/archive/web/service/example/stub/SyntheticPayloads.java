@@ -0,0 +1,127 @@
+package uk.ac.ebi.pride.archive.web.service.example.stub;
+
+/**
+ * Generates synthetic JSON responses in the format of the PRIDE Archive web
+ * service, so the client can be benchmarked without the live service.
+ */
+public final class SyntheticPayloads {
+
+    private SyntheticPayloads() {
+    }
+
+    /**
+     * @param entries the number of files in the list.
+     * @return the JSON of a FileDetailList.
+     */
+    public static String fileDetailList(int entries) {
+        StringBuilder sb = new StringBuilder(entries * 260 + 16);
+        sb.append("{\"list\":[");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            String project = projectAccession(i / 100);
+            sb.append("{\"assayAccession\":\"").append(10000 + i / 10)
+              .append("\",\"projectAccession\":\"").append(project)
+              .append("\",\"fileType\":\"RAW\",\"fileSource\":\"SUBMITTED\"")
+              .append(",\"fileSize\":").append(1000000L + i * 7919L)
+              .append(",\"fileName\":\"sample_").append(i).append(".raw\"")
+              .append(",\"downloadLink\":\"ftp://ftp.pride.ebi.ac.uk/pride/data/archive/2014/01/")
+              .append(project).append("/sample_").append(i).append(".raw\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * @param entries the number of assays in the list.
+     * @return the JSON of an AssayDetailList.
+     */
+    public static String assayDetailList(int entries) {
+        StringBuilder sb = new StringBuilder(entries * 300 + 16);
+        sb.append("{\"list\":[");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            assayDetail(sb, String.valueOf(10000 + i), projectAccession(i / 10));
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * @param assayAccession the accession of the assay.
+     * @return the JSON of an AssayDetail.
+     */
+    public static String assayDetail(String assayAccession) {
+        return assayDetail(new StringBuilder(300), assayAccession, "PXD000001").toString();
+    }
+
+    /**
+     * @param entries the number of projects in the list.
+     * @return the JSON of a ProjectSummaryList.
+     */
+    public static String projectSummaryList(int entries) {
+        return projectSummaryList(0, entries);
+    }
+
+    /**
+     * @param first the number of the first project in the list.
+     * @param entries the number of projects in the list.
+     * @return the JSON of a ProjectSummaryList.
+     */
+    public static String projectSummaryList(int first, int entries) {
+        StringBuilder sb = new StringBuilder(entries * 400 + 16);
+        sb.append("{\"list\":[");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            projectSummary(sb, projectAccession(first + i));
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * @param projectAccession the accession of the project.
+     * @return the JSON of a ProjectDetail.
+     */
+    public static String projectDetail(String projectAccession) {
+        StringBuilder sb = new StringBuilder(600);
+        projectSummary(sb, projectAccession);
+        // the details extend the summary with a few more fields
+        sb.setLength(sb.length() - 1);
+        sb.append(",\"keywords\":[\"synthetic\",\"benchmark\"]")
+          .append(",\"doi\":\"10.6019/").append(projectAccession).append('"')
+          .append(",\"submissionDate\":1388534400000}");
+        return sb.toString();
+    }
+
+    /**
+     * @param i the number of the project.
+     * @return a ProteomeXchange style project accession.
+     */
+    public static String projectAccession(int i) {
+        return String.format("PXD%06d", i);
+    }
+
+    private static StringBuilder assayDetail(StringBuilder sb, String assayAccession, String projectAccession) {
+        return sb.append("{\"assayAccession\":\"").append(assayAccession)
+                 .append("\",\"projectAccession\":\"").append(projectAccession)
+                 .append("\",\"title\":\"Synthetic assay ").append(assayAccession)
+                 .append("\",\"shortLabel\":\"assay_").append(assayAccession)
+                 .append("\",\"proteinCount\":1234,\"peptideCount\":5678,\"uniquePeptideCount\":4321")
+                 .append(",\"identifiedSpectrumCount\":9876,\"totalSpectrumCount\":23456")
+                 .append(",\"ms2Annotation\":false,\"chromatogram\":false")
+                 .append(",\"instrumentNames\":[\"LTQ Orbitrap Velos\"]}");
+    }
+
+    private static void projectSummary(StringBuilder sb, String projectAccession) {
+        sb.append("{\"accession\":\"").append(projectAccession)
+          .append("\",\"title\":\"Synthetic project ").append(projectAccession)
+          .append("\",\"projectDescription\":\"A synthetic project used to benchmark the web service client.\"")
+          .append(",\"publicationDate\":1398902400000,\"numAssays\":12")
+          .append(",\"species\":[\"Homo sapiens (Human)\"],\"tissues\":[\"kidney\"]")
+          .append(",\"ptmNames\":[\"monohydroxylated residue\"],\"instrumentNames\":[\"LTQ Orbitrap Velos\"]")
+          .append(",\"projectTags\":[\"Biomedical\"]}");
+    }
+}
@@ -0,0 +1,191 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.archive.web.service.example.FakeTransport.FakeResponse;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AdaptiveConcurrencyTransportTest {
+
+    private static final Map<String, String> NO_HEADERS = Collections.emptyMap();
+
+    private final URL url = new URL("http://localhost/pride/ws/archive/file/list/project/PXD000001");
+
+    private final FakeClock clock = new FakeClock(false);
+    // the latency of the next requests, in milliseconds
+    private volatile long latency = 10;
+    private volatile int status = 200;
+
+    private final FakeTransport delegate = new FakeTransport((url, headers, request) -> {
+        clock.advance(latency, TimeUnit.MILLISECONDS);
+        return FakeResponse.status(status);
+    });
+
+    public AdaptiveConcurrencyTransportTest() throws IOException {
+    }
+
+    @Test
+    public void growsLimitByOnePerRound() throws IOException {
+        AdaptiveConcurrencyTransport transport = new AdaptiveConcurrencyTransport(delegate, 4, 1, 10, clock);
+
+        round(transport);
+        // a round of 4 requests adds less than one, 1/4 + 1/4.25 + ...
+        assertEquals(4, transport.getLimit());
+        round(transport);
+        assertEquals(5, transport.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            round(transport);
+        }
+        assertEquals(10, transport.getLimit());
+        assertEquals(0, transport.getDecreaseCount());
+    }
+
+    @Test
+    public void doesNotGrowUnusedLimit() throws IOException {
+        AdaptiveConcurrencyTransport transport = new AdaptiveConcurrencyTransport(delegate, 4, 1, 10, clock);
+
+        // one request at a time uses less than half of the limit
+        for (int i = 0; i < 100; i++) {
+            transport.get(url, NO_HEADERS).close();
+        }
+
+        assertEquals(4, transport.getLimit());
+    }
+
+    @Test
+    public void cutsLimitOnHighLatency() throws IOException {
+        AdaptiveConcurrencyTransport transport = new AdaptiveConcurrencyTransport(delegate, 10, 1, 10, clock);
+        transport.get(url, NO_HEADERS).close();
+
+        // twice the lowest latency is still tolerated
+        latency = 20;
+        transport.get(url, NO_HEADERS).close();
+        assertEquals(0, transport.getDecreaseCount());
+
+        latency = 21;
+        transport.get(url, NO_HEADERS).close();
+        assertEquals(9, transport.getLimit());
+        assertEquals(1, transport.getDecreaseCount());
+    }
+
+    @Test
+    public void cutsLimitOncePerRoundOnErrors() throws IOException {
+        AdaptiveConcurrencyTransport transport = new AdaptiveConcurrencyTransport(delegate, 10, 1, 10, clock);
+
+        status = 503;
+        List<Transport.Response> responses = open(transport, 3);
+        for (Transport.Response response : responses) {
+            response.close();
+        }
+        // the requests were all in flight when the first one failed
+        assertEquals(9, transport.getLimit());
+        assertEquals(1, transport.getDecreaseCount());
+
+        status = 429;
+        transport.get(url, NO_HEADERS).close();
+        assertEquals(8, transport.getLimit());
+
+        FakeTransport failing = new FakeTransport((url, headers, request) -> {
+            throw new IOException("connection reset");
+        });
+        AdaptiveConcurrencyTransport failed = new AdaptiveConcurrencyTransport(failing, 10, 1, 10, clock);
+        try {
+            failed.get(url, NO_HEADERS);
+            fail("expected the request to fail");
+        } catch (IOException e) {
+            assertEquals(9, failed.getLimit());
+            assertEquals(0, failed.getInFlight());
+        }
+    }
+
+    @Test
+    public void doesNotCutBelowMinimum() throws IOException {
+        AdaptiveConcurrencyTransport transport = new AdaptiveConcurrencyTransport(delegate, 2, 2, 10, clock);
+
+        status = 503;
+        for (int i = 0; i < 10; i++) {
+            transport.get(url, NO_HEADERS).close();
+        }
+
+        assertEquals(2, transport.getLimit());
+    }
+
+    @Test
+    public void adoptsSlowerLatencyAtMinimumLimit() throws IOException {
+        AdaptiveConcurrencyTransport transport = new AdaptiveConcurrencyTransport(delegate, 1, 1, 10, clock);
+        transport.get(url, NO_HEADERS).close();
+
+        // the service got slower by itself, while we send one request at a time
+        latency = 50;
+        for (int i = 0; i < 198; i++) {
+            transport.get(url, NO_HEADERS).close();
+        }
+        long decreases = transport.getDecreaseCount();
+        assertTrue(decreases > 0);
+        assertEquals(1, transport.getLimit());
+
+        // the window of samples that ends with this request holds only the slower
+        // latency, which becomes the new reference
+        transport.get(url, NO_HEADERS).close();
+        assertEquals(decreases, transport.getDecreaseCount());
+        assertEquals(2, transport.getLimit());
+    }
+
+    @Test
+    public void holdsRequestsBeyondLimitUntilResponseIsClosed() throws Exception {
+        AdaptiveConcurrencyTransport transport = new AdaptiveConcurrencyTransport(delegate, 1, 1, 1, clock);
+        Transport.Response first = transport.get(url, NO_HEADERS);
+
+        CompletableFuture<Transport.Response> second = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                second.complete(transport.get(url, NO_HEADERS));
+            } catch (IOException e) {
+                second.completeExceptionally(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() - deadline < 0) {
+            Thread.sleep(1);
+        }
+        assertFalse(second.isDone());
+        assertEquals(1, delegate.getRequestCount());
+
+        first.close();
+        second.get(5, TimeUnit.SECONDS).close();
+        assertEquals(2, delegate.getRequestCount());
+        assertEquals(0, transport.getInFlight());
+    }
+
+    /**
+     * Sends as many requests as the limit allows at once, then closes them.
+     */
+    private void round(AdaptiveConcurrencyTransport transport) throws IOException {
+        for (Transport.Response response : open(transport, transport.getLimit())) {
+            response.close();
+        }
+    }
+
+    private List<Transport.Response> open(Transport transport, int requests) throws IOException {
+        List<Transport.Response> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(transport.get(url, NO_HEADERS));
+        }
+        return responses;
+    }
+}
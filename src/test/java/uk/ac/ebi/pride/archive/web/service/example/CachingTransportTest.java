@@ -0,0 +1,143 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.archive.web.service.example.FakeTransport.FakeResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class CachingTransportTest {
+
+    private static final Map<String, String> NO_HEADERS = Collections.emptyMap();
+
+    private final URL project = new URL("http://localhost/pride/ws/archive/project/PXD000001");
+    private final URL otherProject = new URL("http://localhost/pride/ws/archive/project/PXD000002");
+    private final URL files = new URL("http://localhost/pride/ws/archive/file/list/project/PXD000001");
+
+    public CachingTransportTest() throws IOException {
+    }
+
+    @Test
+    public void answersRepeatedRequestFromMemory() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> FakeResponse.ok("{\"request\":" + request + "}"));
+        CachingTransport transport = new CachingTransport(delegate, 1000, 1, TimeUnit.MINUTES);
+
+        assertEquals("{\"request\":1}", read(transport, project));
+        assertEquals("{\"request\":1}", read(transport, project));
+
+        assertEquals(1, delegate.getRequestCount());
+        assertEquals(1, transport.getHitCount());
+        assertEquals(1, transport.getMissCount());
+        assertEquals(13, transport.getWeight());
+        assertEquals(0, delegate.getOpenResponses());
+    }
+
+    @Test
+    public void doesNotCacheErrorResponses() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> FakeResponse.status(503));
+        CachingTransport transport = new CachingTransport(delegate, 1000, 1, TimeUnit.MINUTES);
+
+        transport.get(project, NO_HEADERS).close();
+        transport.get(project, NO_HEADERS).close();
+
+        assertEquals(2, delegate.getRequestCount());
+        assertEquals(0, transport.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntries() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> FakeResponse.ok(body(40)));
+        CachingTransport transport = new CachingTransport(delegate, 100, 50, 1, TimeUnit.MINUTES,
+                Collections.<Endpoint, Long>emptyMap());
+
+        read(transport, project);
+        read(transport, otherProject);
+        // makes the first project the most recently used entry
+        read(transport, project);
+        read(transport, files);
+
+        assertEquals(1, transport.getEvictionCount());
+        assertEquals(80, transport.getWeight());
+        read(transport, project);
+        assertEquals(3, delegate.getRequestCount());
+    }
+
+    @Test
+    public void stopsBufferingOversizedBody() throws IOException {
+        String body = body(100000);
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> FakeResponse.ok(body));
+        CachingTransport transport = new CachingTransport(delegate, 100000, 1000, 1, TimeUnit.MINUTES,
+                Collections.<Endpoint, Long>emptyMap());
+
+        try (Transport.Response response = transport.get(files, NO_HEADERS)) {
+            // no more than one byte over the entry limit was read before handing the body on
+            assertEquals(100000 - 1001, delegate.getUnreadBytes(1));
+            assertEquals(body, read(response));
+        }
+
+        assertEquals(0, transport.size());
+        assertEquals(0, delegate.getOpenResponses());
+    }
+
+    @Test
+    public void passesOnAnnouncedOversizedBodyUnread() throws IOException {
+        String body = body(100000);
+        FakeTransport delegate = new FakeTransport((url, headers, request) ->
+                FakeResponse.ok(body).header("Content-Length", "100000"));
+        CachingTransport transport = new CachingTransport(delegate, 100000, 1000, 1, TimeUnit.MINUTES,
+                Collections.<Endpoint, Long>emptyMap());
+
+        try (Transport.Response response = transport.get(files, NO_HEADERS)) {
+            assertEquals(100000, delegate.getUnreadBytes(1));
+            assertEquals(body, read(response));
+        }
+
+        assertEquals(0, transport.size());
+    }
+
+    @Test
+    public void doesNotCacheEndpointWithoutTimeToLive() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> FakeResponse.ok("[]"));
+        CachingTransport transport = new CachingTransport(delegate, 1000, 1, TimeUnit.MINUTES,
+                Collections.singletonMap(Endpoint.FILE_LIST, 0L));
+
+        read(transport, files);
+        read(transport, files);
+
+        assertEquals(2, delegate.getRequestCount());
+        assertEquals(0, transport.getMissCount());
+    }
+
+    private static String body(int length) {
+        char[] body = new char[length];
+        Arrays.fill(body, 'x');
+        return new String(body);
+    }
+
+    private static String read(Transport transport, URL url) throws IOException {
+        try (Transport.Response response = transport.get(url, NO_HEADERS)) {
+            assertEquals(200, response.getStatusCode());
+            return read(response);
+        }
+    }
+
+    private static String read(Transport.Response response) throws IOException {
+        InputStream in = response.getBody();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 200;
+
+    private final CircuitBreaker breaker = new CircuitBreaker(3, OPEN_MILLIS, TimeUnit.MILLISECONDS);
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        fail(2);
+        breaker.onSuccess(acquire());
+        // the success reset the count of consecutive failures
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        assertTrue(breaker.getRemainingOpenTime(TimeUnit.MILLISECONDS) > 0);
+        assertEquals(1, breaker.getOpenedCount());
+        assertEquals(1, breaker.getRejectedCount());
+    }
+
+    @Test
+    public void letsSingleProbeThroughWhenHalfOpen() throws InterruptedException {
+        fail(3);
+        waitUntilHalfOpen();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(0, breaker.getRemainingOpenTime(TimeUnit.MILLISECONDS));
+        acquire();
+        // other requests are rejected while the probe is in flight
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    public void closesWhenProbeSucceeds() throws InterruptedException {
+        fail(3);
+        waitUntilHalfOpen();
+
+        breaker.onSuccess(acquire());
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        acquire();
+        acquire();
+    }
+
+    @Test
+    public void opensAgainWhenProbeFails() throws InterruptedException {
+        fail(3);
+        waitUntilHalfOpen();
+
+        breaker.onFailure(acquire());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        assertEquals(2, breaker.getOpenedCount());
+    }
+
+    @Test
+    public void letsAnotherProbeThroughWhenProbeIsIgnored() throws InterruptedException {
+        fail(3);
+        waitUntilHalfOpen();
+
+        breaker.onIgnored(acquire());
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        acquire();
+    }
+
+    @Test
+    public void ignoresSuccessOfRequestSentBeforeOpening() throws InterruptedException {
+        long stale = acquire();
+        fail(3);
+        waitUntilHalfOpen();
+        long probe = acquire();
+
+        // the request sent while the breaker was closed completes before the probe
+        breaker.onSuccess(stale);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        breaker.onSuccess(probe);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void ignoresFailureOfRequestSentBeforeOpening() throws InterruptedException {
+        long[] stale = {acquire(), acquire(), acquire()};
+        fail(3);
+        waitUntilHalfOpen();
+        long probe = acquire();
+
+        breaker.onFailure(stale[0]);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(1, breaker.getOpenedCount());
+
+        breaker.onSuccess(probe);
+        // nor do late failures count against the closed breaker
+        breaker.onFailure(stale[1]);
+        breaker.onFailure(stale[2]);
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void ignoresOutcomeOfRequestSentBeforeProbe() throws InterruptedException {
+        fail(3);
+        waitUntilHalfOpen();
+        long firstProbe = acquire();
+        breaker.onFailure(firstProbe);
+        waitUntilHalfOpen();
+        long secondProbe = acquire();
+
+        // a repeated report of the first probe does not decide for the second one
+        breaker.onSuccess(firstProbe);
+        breaker.onIgnored(firstProbe);
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        breaker.onSuccess(secondProbe);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * @return the ticket of a request the breaker let through.
+     */
+    private long acquire() {
+        long ticket = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, ticket);
+        return ticket;
+    }
+
+    private void fail(int failures) {
+        for (int i = 0; i < failures; i++) {
+            breaker.onFailure(acquire());
+        }
+    }
+
+    private void waitUntilHalfOpen() throws InterruptedException {
+        Thread.sleep(OPEN_MILLIS + 10);
+    }
+}
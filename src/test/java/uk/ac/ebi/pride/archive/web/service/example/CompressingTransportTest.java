@@ -0,0 +1,139 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.archive.web.service.example.FakeTransport.FakeResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class CompressingTransportTest {
+
+    private static final Map<String, String> NO_HEADERS = Collections.emptyMap();
+
+    private static final String BODY;
+
+    static {
+        StringBuilder body = new StringBuilder("{\"list\":[");
+        for (int i = 0; i < 100; i++) {
+            body.append(i > 0 ? "," : "").append("{\"fileName\":\"file").append(i).append(".raw\",\"fileSize\":").append(i).append('}');
+        }
+        BODY = body.append("]}").toString();
+    }
+
+    private final URL url = new URL("http://localhost/pride/ws/archive/file/list/project/PXD000001");
+
+    public CompressingTransportTest() throws IOException {
+    }
+
+    @Test
+    public void asksForCompressedResponses() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> FakeResponse.ok(BODY));
+        CompressingTransport transport = new CompressingTransport(delegate);
+
+        transport.get(url, Collections.singletonMap("Accept", "application/json")).close();
+        // an encoding asked for by the caller is left alone
+        transport.get(url, Collections.singletonMap("accept-encoding", "identity")).close();
+
+        assertEquals("gzip, deflate", delegate.getRequestHeaders(1).get("Accept-Encoding"));
+        assertEquals("application/json", delegate.getRequestHeaders(1).get("Accept"));
+        assertEquals("identity", delegate.getRequestHeaders(2).get("accept-encoding"));
+        assertNull(delegate.getRequestHeaders(2).get("Accept-Encoding"));
+    }
+
+    @Test
+    public void inflatesGzipBody() throws IOException {
+        byte[] gzip = compress(GZIPOutputStream::new);
+        assertInflated(gzip, "gzip");
+    }
+
+    @Test
+    public void inflatesZlibDeflateBody() throws IOException {
+        byte[] zlib = compress(DeflaterOutputStream::new);
+        assertInflated(zlib, "deflate");
+    }
+
+    @Test
+    public void inflatesRawDeflateBody() throws IOException {
+        // without the zlib header and checksum
+        byte[] raw = compress(out -> new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, true)));
+        assertInflated(raw, " Deflate ");
+    }
+
+    @Test
+    public void passesIdentityBodyOn() throws IOException {
+        assertInflated(BODY.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    @Test
+    public void rejectsUnsupportedEncoding() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) ->
+                FakeResponse.ok(BODY).header("Content-Encoding", "br"));
+        CompressingTransport transport = new CompressingTransport(delegate);
+
+        try (Transport.Response response = transport.get(url, NO_HEADERS)) {
+            response.getBody();
+            fail("expected the unsupported encoding to be rejected");
+        } catch (IOException e) {
+            assertEquals("Unsupported Content-Encoding: br", e.getMessage());
+        }
+        assertEquals(0, delegate.getOpenResponses());
+    }
+
+    /**
+     * @param body the body as sent by the service.
+     * @param encoding the Content-Encoding of the body, null for none.
+     */
+    private void assertInflated(byte[] body, String encoding) throws IOException {
+        String length = Integer.toString(body.length);
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> encoding == null
+                ? FakeResponse.ok(body).header("Content-Length", length)
+                : FakeResponse.ok(body).header("Content-Length", length).header("Content-Encoding", encoding));
+        CompressingTransport transport = new CompressingTransport(delegate);
+
+        try (Transport.Response response = transport.get(url, NO_HEADERS)) {
+            assertNull(response.getHeader("Content-Encoding"));
+            // the length of a compressed body does not apply to the inflated one
+            assertEquals(encoding == null ? length : null, response.getHeader("Content-Length"));
+            assertEquals(BODY, read(response.getBody()));
+        }
+        assertEquals(body.length, transport.getWireBytes());
+        assertEquals(BODY.length(), transport.getDecodedBytes());
+        assertEquals(0, delegate.getOpenResponses());
+    }
+
+    private static byte[] compress(Compressor compressor) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = compressor.wrap(compressed)) {
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private interface Compressor {
+
+        OutputStream wrap(OutputStream out) throws IOException;
+    }
+}
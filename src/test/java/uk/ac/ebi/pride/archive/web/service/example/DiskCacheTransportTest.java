@@ -0,0 +1,99 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.ebi.pride.archive.web.service.example.FakeTransport.FakeResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class DiskCacheTransportTest {
+
+    private static final Map<String, String> NO_HEADERS = Collections.emptyMap();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final URL url = new URL("http://localhost/pride/ws/archive/project/PXD000001");
+
+    public DiskCacheTransportTest() throws IOException {
+    }
+
+    @Test
+    public void revalidatesStoredEntry() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> request == 1
+                ? FakeResponse.ok("{\"accession\":\"PXD000001\"}").header("ETag", "\"v1\"")
+                : FakeResponse.status(304));
+        DiskCacheTransport transport = new DiskCacheTransport(delegate, folder.getRoot().toPath().resolve("cache"));
+
+        assertEquals("{\"accession\":\"PXD000001\"}", read(transport));
+        assertEquals("{\"accession\":\"PXD000001\"}", read(transport));
+
+        assertNull(delegate.getRequestHeaders(1).get("If-None-Match"));
+        assertEquals("\"v1\"", delegate.getRequestHeaders(2).get("If-None-Match"));
+        assertEquals(1, transport.getDownloadCount());
+        assertEquals(1, transport.getRevalidatedCount());
+        assertEquals(0, delegate.getOpenResponses());
+    }
+
+    @Test
+    public void passesResponseOnIfCacheCannotBeWritten() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) ->
+                FakeResponse.ok("{\"accession\":\"PXD000001\"}").header("ETag", "\"v1\""));
+        Path directory = folder.getRoot().toPath().resolve("cache");
+        DiskCacheTransport transport = new DiskCacheTransport(delegate, directory);
+        // the cache directory is replaced by a plain file after the transport was created
+        Files.delete(directory);
+        Files.write(directory, new byte[0]);
+
+        assertEquals("{\"accession\":\"PXD000001\"}", read(transport));
+        assertEquals("{\"accession\":\"PXD000001\"}", read(transport));
+
+        // the responses were passed on, closed and not counted as stored
+        assertEquals(2, delegate.getRequestCount());
+        assertEquals(0, delegate.getOpenResponses());
+        assertEquals(0, transport.getDownloadCount());
+    }
+
+    @Test
+    public void discardsEntryOfUnreadBody() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) ->
+                FakeResponse.ok("{\"accession\":\"PXD000001\"}").header("ETag", "\"v1\""));
+        Path directory = folder.getRoot().toPath().resolve("cache");
+        DiskCacheTransport transport = new DiskCacheTransport(delegate, directory);
+
+        transport.get(url, NO_HEADERS).close();
+
+        assertEquals(0, delegate.getOpenResponses());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+
+    private String read(Transport transport) throws IOException {
+        try (Transport.Response response = transport.get(url, NO_HEADERS)) {
+            assertEquals(200, response.getStatusCode());
+            InputStream in = response.getBody();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[256];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link NanoClock} that only moves when told to, and records the time
+ * slept instead of sleeping.
+ */
+class FakeClock implements NanoClock {
+
+    private final boolean advanceOnSleep;
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final List<Long> sleeps = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param advanceOnSleep true to advance the clock by the time slept, as
+     *                       for a single thread, false to keep it, as for
+     *                       many threads sleeping at the same time.
+     */
+    FakeClock(boolean advanceOnSleep) {
+        this.advanceOnSleep = advanceOnSleep;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos.get();
+    }
+
+    @Override
+    public void sleep(long nanos) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        sleeps.add(nanos);
+        if (advanceOnSleep) {
+            advance(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void advance(long time, TimeUnit unit) {
+        nanos.addAndGet(unit.toNanos(time));
+    }
+
+    /**
+     * @param unit the unit to return the times in.
+     * @return the times slept, in the order of the calls.
+     */
+    long[] getSleeps(TimeUnit unit) {
+        long[] times = new long[sleeps.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = unit.convert(sleeps.get(i), TimeUnit.NANOSECONDS);
+        }
+        return times;
+    }
+}
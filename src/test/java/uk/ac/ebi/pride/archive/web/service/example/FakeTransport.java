@@ -0,0 +1,159 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link Transport} answering the requests with scripted responses, which
+ * records the requests and keeps track of the responses that are not closed.
+ */
+class FakeTransport implements Transport {
+
+    /**
+     * Produces the response to a request.
+     */
+    interface Handler {
+
+        /**
+         * @param url the requested URL.
+         * @param requestHeaders the request headers sent.
+         * @param request the number of the request, starting at 1.
+         * @return the response to send.
+         * @throws IOException to fail the request.
+         */
+        FakeResponse handle(URL url, Map<String, String> requestHeaders, int request) throws IOException;
+    }
+
+    private final Handler handler;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger openResponses = new AtomicInteger();
+    private final List<Map<String, String>> requestHeaders = new CopyOnWriteArrayList<>();
+    private final Map<Integer, InputStream> responseBodies = new ConcurrentHashMap<>();
+
+    FakeTransport(Handler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> headers) throws IOException {
+        int request = requestCount.incrementAndGet();
+        requestHeaders.add(new HashMap<>(headers));
+        FakeResponse response = handler.handle(url, headers, request);
+        openResponses.incrementAndGet();
+        Response opened = response.open(openResponses);
+        responseBodies.put(request, opened.getBody());
+        return opened;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the number of responses handed out and not closed yet.
+     */
+    int getOpenResponses() {
+        return openResponses.get();
+    }
+
+    /**
+     * @param request the number of the request, starting at 1.
+     * @return the headers sent with the request.
+     */
+    Map<String, String> getRequestHeaders(int request) {
+        return requestHeaders.get(request - 1);
+    }
+
+    /**
+     * @param request the number of a request that was answered, starting at 1.
+     * @return the number of bytes of its response body that were not read yet.
+     */
+    int getUnreadBytes(int request) throws IOException {
+        return responseBodies.get(request).available();
+    }
+
+    /**
+     * A scripted response.
+     */
+    static class FakeResponse {
+
+        private final int statusCode;
+        private final byte[] body;
+        private final Map<String, String> headers = new HashMap<>();
+
+        FakeResponse(int statusCode, String body) {
+            this(statusCode, body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        FakeResponse(int statusCode, byte[] body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        static FakeResponse ok(String body) {
+            return new FakeResponse(200, body);
+        }
+
+        static FakeResponse ok(byte[] body) {
+            return new FakeResponse(200, body);
+        }
+
+        static FakeResponse status(int statusCode) {
+            return new FakeResponse(statusCode, "");
+        }
+
+        FakeResponse header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        private Response open(AtomicInteger openResponses) {
+            InputStream in = new ByteArrayInputStream(body);
+            return new Response() {
+                private boolean closed;
+
+                @Override
+                public int getStatusCode() {
+                    return statusCode;
+                }
+
+                @Override
+                public String getHeader(String name) {
+                    for (Map.Entry<String, String> header : headers.entrySet()) {
+                        if (header.getKey().equalsIgnoreCase(name)) {
+                            return header.getValue();
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return in;
+                }
+
+                @Override
+                public void close() {
+                    if (!closed) {
+                        closed = true;
+                        openResponses.decrementAndGet();
+                    }
+                }
+            };
+        }
+    }
+}
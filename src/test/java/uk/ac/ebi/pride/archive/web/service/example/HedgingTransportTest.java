@@ -0,0 +1,141 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import org.junit.After;
+import org.junit.Test;
+import uk.ac.ebi.pride.archive.web.service.example.FakeTransport.FakeResponse;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class HedgingTransportTest {
+
+    private static final Map<String, String> NO_HEADERS = Collections.emptyMap();
+
+    // enough requests for the transport to start hedging
+    private static final int WARM_UP = 20;
+
+    private final URL url = new URL("http://localhost/pride/ws/archive/project/PXD000001");
+
+    private HedgingTransport transport;
+
+    public HedgingTransportTest() throws IOException {
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    @Test
+    public void slowSuccessWinsOverFastError() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> {
+            if (request <= WARM_UP) {
+                return FakeResponse.ok("{}");
+            }
+            // the original request is slow but succeeds, the hedge is throttled right away
+            if (request == WARM_UP + 1) {
+                sleep(200);
+                return FakeResponse.ok("{}");
+            }
+            return FakeResponse.status(429);
+        });
+        transport = hedging(delegate);
+        warmUp();
+
+        try (Transport.Response response = transport.get(url, NO_HEADERS)) {
+            assertEquals(200, response.getStatusCode());
+            // the throttled hedge was released, only the returned response is open
+            assertEquals(1, delegate.getOpenResponses());
+        }
+        assertEquals(1, transport.getHedgedCount());
+        assertEquals(0, transport.getHedgeWinCount());
+    }
+
+    @Test
+    public void errorIsReturnedIfNeitherRequestSucceeds() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> {
+            if (request <= WARM_UP) {
+                return FakeResponse.ok("{}");
+            }
+            if (request == WARM_UP + 1) {
+                sleep(200);
+                return FakeResponse.status(503);
+            }
+            throw new IOException("connection reset");
+        });
+        transport = hedging(delegate);
+        warmUp();
+
+        try (Transport.Response response = transport.get(url, NO_HEADERS)) {
+            assertEquals(503, response.getStatusCode());
+        }
+        assertEquals(0, delegate.getOpenResponses());
+    }
+
+    @Test
+    public void failureIsThrownIfBothRequestsFail() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> {
+            if (request <= WARM_UP) {
+                return FakeResponse.ok("{}");
+            }
+            sleep(request == WARM_UP + 1 ? 200 : 0);
+            throw new IOException("request " + request + " failed");
+        });
+        transport = hedging(delegate);
+        warmUp();
+
+        try {
+            transport.get(url, NO_HEADERS);
+            fail("expected the failure of the original request");
+        } catch (IOException e) {
+            assertEquals("request " + (WARM_UP + 1) + " failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void errorLatenciesAreNotRecorded() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> {
+            if (request <= WARM_UP) {
+                return FakeResponse.status(503);
+            }
+            sleep(50);
+            return FakeResponse.ok("{}");
+        });
+        transport = hedging(delegate);
+        warmUp();
+
+        // the quick errors don't count, so there are no latencies to hedge at yet
+        try (Transport.Response response = transport.get(url, NO_HEADERS)) {
+            assertEquals(200, response.getStatusCode());
+        }
+        assertEquals(0, transport.getHedgedCount());
+        assertEquals(WARM_UP + 1, delegate.getRequestCount());
+    }
+
+    private HedgingTransport hedging(Transport delegate) {
+        return new HedgingTransport(delegate, EnumSet.of(Endpoint.PROJECT), 0.95, null);
+    }
+
+    private void warmUp() throws IOException {
+        for (int i = 0; i < WARM_UP; i++) {
+            transport.get(url, NO_HEADERS).close();
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.archive.web.service.example.FakeTransport.FakeResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimitedTransportTest {
+
+    private static final Map<String, String> NO_HEADERS = Collections.emptyMap();
+
+    private final URL url = new URL("http://localhost/pride/ws/archive/project/PXD000001");
+
+    public RateLimitedTransportTest() throws IOException {
+    }
+
+    @Test
+    public void passesRequestsThroughLimiter() throws IOException {
+        FakeClock clock = new FakeClock(true);
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> FakeResponse.ok("{}"));
+        RateLimitedTransport transport = new RateLimitedTransport(delegate, new RateLimiter(5, 2, clock));
+
+        for (int i = 0; i < 4; i++) {
+            transport.get(url, NO_HEADERS).close();
+        }
+
+        assertEquals(4, delegate.getRequestCount());
+        assertArrayEquals(new long[]{200, 200}, clock.getSleeps(TimeUnit.MILLISECONDS));
+        assertEquals(4, transport.getRateLimiter().getAcquireCount());
+    }
+
+    @Test
+    public void doesNotSendRequestWhenInterrupted() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> FakeResponse.ok("{}"));
+        RateLimitedTransport transport = new RateLimitedTransport(delegate, new RateLimiter(5, 1, new FakeClock(true)));
+        transport.get(url, NO_HEADERS).close();
+
+        Thread.currentThread().interrupt();
+        try {
+            transport.get(url, NO_HEADERS);
+            fail("expected the request to be interrupted while waiting for a token");
+        } catch (InterruptedIOException e) {
+            // the interrupt is kept for the caller
+            assertTrue(Thread.interrupted());
+        }
+        assertEquals(1, delegate.getRequestCount());
+    }
+}
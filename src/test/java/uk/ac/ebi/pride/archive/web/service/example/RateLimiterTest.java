@@ -0,0 +1,93 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    @Test
+    public void sendsBurstAtOnce() throws InterruptedException {
+        FakeClock clock = new FakeClock(true);
+        RateLimiter limiter = new RateLimiter(10, 3, clock);
+
+        acquire(limiter, 3);
+        assertArrayEquals(new long[0], clock.getSleeps(TimeUnit.MILLISECONDS));
+
+        acquire(limiter, 1);
+        assertArrayEquals(new long[]{100}, clock.getSleeps(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void spacesRequestsAtTheRate() throws InterruptedException {
+        FakeClock clock = new FakeClock(true);
+        RateLimiter limiter = new RateLimiter(10, 1, clock);
+
+        acquire(limiter, 4);
+
+        assertArrayEquals(new long[]{100, 100, 100}, clock.getSleeps(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void queuesConcurrentRequests() throws InterruptedException {
+        // the clock stands still, as if the requests all arrived at once
+        FakeClock clock = new FakeClock(false);
+        RateLimiter limiter = new RateLimiter(10, 2, clock);
+
+        acquire(limiter, 5);
+
+        assertArrayEquals(new long[]{100, 200, 300}, clock.getSleeps(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void refillsUpToBurstWhileIdle() throws InterruptedException {
+        FakeClock clock = new FakeClock(true);
+        RateLimiter limiter = new RateLimiter(10, 3, clock);
+        acquire(limiter, 3);
+
+        // long enough for many more tokens than the bucket holds
+        clock.advance(10, TimeUnit.SECONDS);
+        acquire(limiter, 4);
+
+        assertArrayEquals(new long[]{100}, clock.getSleeps(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void takesTokenOnlyIfAvailable() throws InterruptedException {
+        FakeClock clock = new FakeClock(true);
+        RateLimiter limiter = new RateLimiter(10, 1, clock);
+
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        clock.advance(100, TimeUnit.MILLISECONDS);
+        assertTrue(limiter.tryAcquire());
+
+        assertEquals(2, limiter.getAcquireCount());
+        assertEquals(0, limiter.getWaitCount());
+        assertArrayEquals(new long[0], clock.getSleeps(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void recordsWaitTimes() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(10, 2, new FakeClock(false));
+
+        acquire(limiter, 5);
+
+        assertEquals(5, limiter.getAcquireCount());
+        assertEquals(3, limiter.getWaitCount());
+        assertEquals(600, limiter.getTotalWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(300, limiter.getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(120, limiter.getAverageWaitTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    private static void acquire(RateLimiter limiter, int requests) throws InterruptedException {
+        for (int i = 0; i < requests; i++) {
+            limiter.acquire();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+
+    private static final int SAMPLES = 1000;
+
+    private final RetryPolicy policy = new RetryPolicy(4, 100, 10000, TimeUnit.MILLISECONDS, 0.1);
+
+    @Test
+    public void firstDelayIsJittered() {
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = policy.nextDelayMillis(0);
+            assertTrue("delay out of bounds: " + delay, delay >= 100 && delay <= 300);
+            delays.add(delay);
+        }
+        // clients failing together must not all retry after the same delay
+        assertTrue("delays not spread: " + delays.size(), delays.size() > 50);
+    }
+
+    @Test
+    public void delayIsBetweenBaseAndThreeTimesPreviousDelay() {
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = policy.nextDelayMillis(1000);
+            assertTrue("delay out of bounds: " + delay, delay >= 100 && delay <= 3000);
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        assertTrue(min < 1000);
+        assertTrue(max > 2000);
+    }
+
+    @Test
+    public void delayIsCappedAtMaxDelay() {
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = policy.nextDelayMillis(9000);
+            assertTrue("delay out of bounds: " + delay, delay >= 100 && delay <= 10000);
+        }
+    }
+
+    @Test
+    public void fixedDelayWithoutRoomForJitter() {
+        RetryPolicy fixed = new RetryPolicy(4, 100, 100, TimeUnit.MILLISECONDS, 0.1);
+        assertEquals(100, fixed.nextDelayMillis(0));
+        assertEquals(100, fixed.nextDelayMillis(100));
+    }
+
+    @Test
+    public void retriesTransientFailuresOnly() throws Exception {
+        assertTrue(policy.isRetryable(429));
+        assertTrue(policy.isRetryable(503));
+        assertFalse(policy.isRetryable(404));
+        assertTrue(policy.isRetryable(new IOException("connection reset")));
+        assertTrue(policy.isRetryable(new SocketTimeoutException()));
+        assertFalse(policy.isRetryable(new CircuitOpenException(
+                new URL("http://localhost/pride/ws/archive/project/PXD000001"), Endpoint.PROJECT, 1000)));
+    }
+
+    @Test
+    public void parsesRetryAfterSeconds() {
+        assertEquals(120000, RetryPolicy.parseRetryAfter(" 120 "));
+        assertEquals(-1, RetryPolicy.parseRetryAfter(null));
+        assertEquals(-1, RetryPolicy.parseRetryAfter("soon"));
+    }
+}
@@ -0,0 +1,65 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.archive.web.service.example.FakeTransport.FakeResponse;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RetryingTransportTest {
+
+    // short delays, and a budget allowing a retry for every request
+    private static final RetryPolicy POLICY = new RetryPolicy(3, 1, 5, TimeUnit.MILLISECONDS, 1.0);
+
+    private final URL url = new URL("http://localhost/pride/ws/archive/project/PXD000001");
+
+    public RetryingTransportTest() throws IOException {
+    }
+
+    @Test
+    public void retriesServerError() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) ->
+                request == 1 ? FakeResponse.status(503) : FakeResponse.ok("{}"));
+        RetryingTransport transport = new RetryingTransport(delegate, POLICY);
+
+        try (Transport.Response response = transport.get(url, Collections.<String, String>emptyMap())) {
+            assertEquals(200, response.getStatusCode());
+        }
+        assertEquals(2, delegate.getRequestCount());
+        assertEquals(1, transport.getRetryCount());
+        // the failed response was released before retrying
+        assertEquals(0, delegate.getOpenResponses());
+    }
+
+    @Test
+    public void doesNotRetryClientError() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> FakeResponse.status(404));
+        RetryingTransport transport = new RetryingTransport(delegate, POLICY);
+
+        try (Transport.Response response = transport.get(url, Collections.<String, String>emptyMap())) {
+            assertEquals(404, response.getStatusCode());
+        }
+        assertEquals(1, delegate.getRequestCount());
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() throws IOException {
+        FakeTransport delegate = new FakeTransport((url, headers, request) -> {
+            throw new IOException("connection reset");
+        });
+        RetryingTransport transport = new RetryingTransport(delegate, POLICY);
+
+        try {
+            transport.get(url, Collections.<String, String>emptyMap());
+            fail("expected the last failure to be thrown");
+        } catch (IOException e) {
+            assertEquals("connection reset", e.getMessage());
+        }
+        assertEquals(POLICY.getMaxAttempts(), delegate.getRequestCount());
+    }
+}
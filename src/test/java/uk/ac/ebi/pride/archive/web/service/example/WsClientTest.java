@@ -0,0 +1,577 @@
+package uk.ac.ebi.pride.archive.web.service.example;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.After;
+import org.junit.Test;
+import uk.ac.ebi.pride.archive.web.service.example.FakeTransport.FakeResponse;
+import uk.ac.ebi.pride.archive.web.service.model.assay.AssayDetail;
+import uk.ac.ebi.pride.archive.web.service.model.file.FileDetail;
+import uk.ac.ebi.pride.archive.web.service.model.file.FileDetailList;
+import uk.ac.ebi.pride.archive.web.service.model.project.ProjectDetail;
+import uk.ac.ebi.pride.archive.web.service.model.project.ProjectSummary;
+import uk.ac.ebi.pride.archive.web.service.model.project.ProjectSummaryList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WsClientTest {
+
+    private static final String BASE_URL = "http://localhost/pride/ws/archive";
+
+    private static final String FILE_LIST = json("{'list':["
+            + "{'fileName':'a.raw','fileSize':100,'downloadLink':'ftp://localhost/a.raw',"
+            + "'assayAccession':'1','projectAccession':'PXD000001'},"
+            + "{'fileName':'b.mzid','fileSize':200,'downloadLink':'ftp://localhost/b.mzid',"
+            + "'assayAccession':'2','projectAccession':'PXD000001'}]}");
+
+    // the response ends in the middle of the second file
+    private static final String TRUNCATED_FILE_LIST = json("{'list':[{'fileName':'a.raw','fileSize':100},{'fileName':'b.m");
+
+    private WsClient client;
+
+    @After
+    public void tearDown() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void parsesCountSurroundedByWhitespace() throws Exception {
+        assertEquals(42, count(" \t42\r\n"));
+    }
+
+    @Test
+    public void parsesLargestCount() throws Exception {
+        assertEquals(Long.MAX_VALUE, count(Long.toString(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void rejectsCountOutOfRange() throws Exception {
+        assertInvalidCount("9223372036854775808", "Count response exceeds the range of a long");
+    }
+
+    @Test
+    public void rejectsEmptyCount() throws Exception {
+        assertInvalidCount("", "Empty count response");
+        assertInvalidCount(" \n", "Empty count response");
+    }
+
+    @Test
+    public void rejectsCountWithEmbeddedWhitespace() throws Exception {
+        assertInvalidCount("12 34", "Invalid count response, unexpected character: '3'");
+    }
+
+    @Test
+    public void rejectsCountWithNonDigits() throws Exception {
+        assertInvalidCount("-1", "Invalid count response, unexpected character: '-'");
+        assertInvalidCount("12a", "Invalid count response, unexpected character: 'a'");
+    }
+
+    @Test
+    public void returnsCountsInOrderOfKeywords() throws Exception {
+        FakeTransport transport = new FakeTransport((url, headers, request) -> {
+            int count = Integer.parseInt(keyword(url.getQuery()));
+            // the first counts take the longest, so they complete last
+            sleep(10 * (4 - count));
+            return FakeResponse.ok(Integer.toString(count));
+        });
+        client = client(transport);
+
+        long[] counts = client.countProjects(Arrays.asList(keywords("1"), keywords("2"), keywords("3")), 3);
+
+        assertArrayEquals(new long[]{1, 2, 3}, counts);
+        assertEquals(0, transport.getOpenResponses());
+    }
+
+    @Test
+    public void stopsCountingAfterFailure() throws Exception {
+        FakeTransport transport = new FakeTransport((url, headers, request) ->
+                keyword(url.getQuery()).equals("kidney") ? FakeResponse.status(500) : FakeResponse.ok("1"));
+        client = client(transport);
+
+        try {
+            client.countProjects(Arrays.asList(keywords("cancer"), keywords("kidney"), keywords("liver"),
+                    keywords("brain")), 1);
+            fail("expected the failure of the second count");
+        } catch (HttpStatusException e) {
+            assertEquals(500, e.getStatusCode());
+        }
+        assertEquals(2, transport.getRequestCount());
+    }
+
+    @Test
+    public void mergesPagesInPageOrder() throws Exception {
+        FakeTransport transport = new FakeTransport((url, headers, request) -> {
+            if (url.getPath().endsWith("/project/count")) {
+                return FakeResponse.ok("5");
+            }
+            int page = page(url.getQuery());
+            // the first pages take the longest, so they complete last
+            sleep(10 * (3 - page));
+            return FakeResponse.ok(json("{'list':[{'accession':'PXD00000" + (2 * page + 1) + "'}"
+                    + (page < 2 ? ",{'accession':'PXD00000" + (2 * page + 2) + "'}" : "") + "]}"));
+        });
+        client = client(transport);
+
+        ProjectSummaryList projects = client.queryForAllProjects(keywords("cancer"), 2, 3);
+
+        assertEquals(Arrays.asList("PXD000001", "PXD000002", "PXD000003", "PXD000004", "PXD000005"),
+                projects.getList().stream().map(ProjectSummary::getAccession).collect(Collectors.toList()));
+        assertEquals(4, transport.getRequestCount());
+        assertEquals(0, transport.getOpenResponses());
+    }
+
+    @Test
+    public void stopsRequestingPagesAfterFailure() throws Exception {
+        FakeTransport transport = new FakeTransport((url, headers, request) -> {
+            if (url.getPath().endsWith("/project/count")) {
+                return FakeResponse.ok("10");
+            }
+            return page(url.getQuery()) == 1 ? FakeResponse.status(500) : FakeResponse.ok(json("{'list':[]}"));
+        });
+        client = client(transport);
+
+        try {
+            client.queryForAllProjects(keywords("cancer"), 2, 1);
+            fail("expected the failure of the second page");
+        } catch (HttpStatusException e) {
+            assertEquals(500, e.getStatusCode());
+        }
+        // the count and the first two of the five pages
+        assertEquals(3, transport.getRequestCount());
+    }
+
+    @Test
+    public void waitsForPagesInFlightBeforeReportingFailure() throws Exception {
+        CountDownLatch secondPageStarted = new CountDownLatch(1);
+        AtomicBoolean secondPageDone = new AtomicBoolean();
+        FakeTransport transport = new FakeTransport((url, headers, request) -> {
+            if (url.getPath().endsWith("/project/count")) {
+                return FakeResponse.ok("4");
+            }
+            if (page(url.getQuery()) == 0) {
+                await(secondPageStarted);
+                return FakeResponse.status(500);
+            }
+            secondPageStarted.countDown();
+            sleep(100);
+            secondPageDone.set(true);
+            return FakeResponse.ok(json("{'list':[]}"));
+        });
+        client = client(transport);
+
+        try {
+            client.queryForAllProjects(keywords("cancer"), 2, 2);
+            fail("expected the failure of the first page");
+        } catch (HttpStatusException e) {
+            assertEquals(500, e.getStatusCode());
+        }
+        // the second page still held its place within maxInFlight
+        assertTrue(secondPageDone.get());
+        assertEquals(0, transport.getOpenResponses());
+    }
+
+    @Test
+    public void looksUpDuplicateAccessionsOnce() throws Exception {
+        FakeTransport transport = new FakeTransport((url, headers, request) -> {
+            String accession = accession(url);
+            return accession.equals("PXD000002") ? FakeResponse.status(404)
+                    : FakeResponse.ok(json("{'accession':'" + accession + "'}"));
+        });
+        client = client(transport);
+
+        // one at a time, so duplicates aren't merged as identical requests in flight
+        Map<String, BatchResult<ProjectDetail>> results = client.getProjectDetails(
+                Arrays.asList("PXD000001", "PXD000002", "PXD000001", "PXD000003", "PXD000002"), 1);
+
+        assertEquals(Arrays.asList("PXD000001", "PXD000002", "PXD000003"), new ArrayList<>(results.keySet()));
+        assertEquals(3, transport.getRequestCount());
+        assertEquals("PXD000001", results.get("PXD000001").getValue().getAccession());
+        assertEquals("PXD000003", results.get("PXD000003").getValue().getAccession());
+        BatchResult<ProjectDetail> failed = results.get("PXD000002");
+        assertFalse(failed.isSuccess());
+        assertEquals("PXD000002", failed.getAccession());
+        assertEquals(404, ((HttpStatusException) failed.getFailure()).getStatusCode());
+    }
+
+    @Test
+    public void reportsFailedLookupWithoutEndingBatch() throws Exception {
+        FakeTransport transport = new FakeTransport((url, headers, request) -> {
+            String accession = accession(url);
+            if (accession.equals("1")) {
+                throw new IOException("connection reset");
+            }
+            return FakeResponse.ok(json("{'assayAccession':'" + accession + "'}"));
+        });
+        client = client(transport);
+
+        List<BatchResult<AssayDetail>> results = new ArrayList<>();
+        client.getAssayDetails(Arrays.asList("1", "2", "3", "1", "4"), 2, results::add);
+
+        Map<String, BatchResult<AssayDetail>> byAccession = results.stream()
+                .collect(Collectors.toMap(BatchResult::getAccession, result -> result));
+        assertEquals(4, results.size());
+        assertEquals(4, byAccession.size());
+        assertEquals("connection reset", byAccession.get("1").getFailure().getMessage());
+        for (String accession : Arrays.asList("2", "3", "4")) {
+            assertTrue(byAccession.get(accession).isSuccess());
+            assertEquals(accession, byAccession.get(accession).getValue().getAssayAccession());
+        }
+        assertEquals(4, transport.getRequestCount());
+        assertEquals(0, transport.getOpenResponses());
+    }
+
+    @Test
+    public void mapsSelectedFieldsOnly() throws Exception {
+        client = client(new FakeTransport((url, headers, request) -> FakeResponse.ok(FILE_LIST)));
+
+        FileDetailList files = client.getFilesForProject("PXD000001", Fields.NAME, Fields.SIZE);
+
+        assertEquals(2, files.getList().size());
+        FileDetail first = files.getList().get(0);
+        assertEquals("a.raw", first.getFileName());
+        assertEquals(100, first.getFileSize());
+        assertNull(first.getDownloadLink());
+        assertNull(first.getAssayAccession());
+        assertNull(first.getProjectAccession());
+        FileDetail second = files.getList().get(1);
+        assertEquals("b.mzid", second.getFileName());
+        assertEquals(200, second.getFileSize());
+    }
+
+    @Test
+    public void skipsUnknownAndNestedFields() throws Exception {
+        client = client(new FakeTransport((url, headers, request) -> FakeResponse.ok(json(
+                "{'meta':{'list':[{'fileName':'nested.raw'}]},'count':1,"
+                        + "'list':[{'fileType':'RAW','extra':{'fileName':'nested.raw','tags':[1,[2],{'a':null}]},"
+                        + "'fileName':'a.raw','assayAccession':null,'projectAccession':'PXD000001'}],"
+                        + "'trailer':[{'fileName':'after.raw'}]}"))));
+
+        FileDetailList files = client.getFilesForProject("PXD000001", Fields.NAME, Fields.ASSAY_ACCESSION,
+                Fields.PROJECT_ACCESSION);
+
+        assertEquals(1, files.getList().size());
+        FileDetail file = files.getList().get(0);
+        assertEquals("a.raw", file.getFileName());
+        assertNull(file.getAssayAccession());
+        assertEquals("PXD000001", file.getProjectAccession());
+        assertEquals(0, file.getFileSize());
+    }
+
+    @Test
+    public void mapsEmptyFileList() throws Exception {
+        client = client(new FakeTransport((url, headers, request) -> FakeResponse.ok(json("{'list':[]}"))));
+
+        assertEquals(Collections.emptyList(), client.getFilesForProject("PXD000001", Fields.NAME).getList());
+    }
+
+    @Test
+    public void mapsMissingFileList() throws Exception {
+        client = client(new FakeTransport((url, headers, request) ->
+                FakeResponse.ok(request == 1 ? json("{'list':null}") : "{}")));
+
+        assertNull(client.getFilesForProject("PXD000001", Fields.NAME).getList());
+        assertNull(client.getFilesForProject("PXD000001", Fields.NAME).getList());
+    }
+
+    @Test
+    public void doesNotShareResponseBetweenProjections() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        FakeTransport transport = new FakeTransport((url, headers, request) -> {
+            if (request == 1) {
+                firstStarted.countDown();
+                // hold the first request in flight until the second one arrived
+                await(secondStarted);
+            } else {
+                secondStarted.countDown();
+            }
+            return FakeResponse.ok(FILE_LIST);
+        });
+        client = client(transport);
+
+        CompletableFuture<FileDetailList> names = CompletableFuture.supplyAsync(() -> files(Fields.NAME));
+        await(firstStarted);
+        FileDetailList sizes = files(Fields.SIZE);
+
+        assertEquals(2, transport.getRequestCount());
+        assertNull(sizes.getList().get(0).getFileName());
+        assertEquals(100, sizes.getList().get(0).getFileSize());
+        assertEquals("a.raw", names.get().getList().get(0).getFileName());
+        assertEquals(0, names.get().getList().get(0).getFileSize());
+    }
+
+    @Test
+    public void streamsFilesAndClosesResponseAtTheEnd() throws Exception {
+        FakeTransport transport = new FakeTransport((url, headers, request) -> FakeResponse.ok(FILE_LIST));
+        client = client(transport);
+
+        Stream<FileDetail> files = client.streamFilesForProject("PXD000001");
+        assertEquals(Arrays.asList("a.raw", "b.mzid"), files.map(FileDetail::getFileName).collect(Collectors.toList()));
+        // the response was closed once the last file was read, before the stream was
+        assertEquals(0, transport.getOpenResponses());
+        files.close();
+    }
+
+    @Test
+    public void streamsProjectedFiles() throws Exception {
+        client = client(new FakeTransport((url, headers, request) -> FakeResponse.ok(FILE_LIST)));
+
+        try (Stream<FileDetail> files = client.streamFilesForProject("PXD000001", Fields.SIZE)) {
+            assertEquals(300, files.mapToLong(FileDetail::getFileSize).sum());
+        }
+    }
+
+    @Test
+    public void closesResponseOfPartlyConsumedStream() throws Exception {
+        FakeTransport transport = new FakeTransport((url, headers, request) -> FakeResponse.ok(FILE_LIST));
+        client = client(transport);
+
+        try (Stream<FileDetail> files = client.streamFilesForProject("PXD000001", Fields.NAME)) {
+            assertEquals("a.raw", files.findFirst().get().getFileName());
+            assertEquals(1, transport.getOpenResponses());
+        }
+        assertEquals(0, transport.getOpenResponses());
+    }
+
+    @Test
+    public void throwsUncheckedExceptionFromStreamOfTruncatedList() throws Exception {
+        FakeTransport transport = new FakeTransport((url, headers, request) -> FakeResponse.ok(TRUNCATED_FILE_LIST));
+        client = client(transport);
+
+        List<String> names = new ArrayList<>();
+        try (Stream<FileDetail> files = client.streamFilesForProject("PXD000001")) {
+            files.forEach(file -> names.add(file.getFileName()));
+            fail("expected the truncated list to fail");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause() instanceof JsonProcessingException);
+        }
+        assertEquals(Collections.singletonList("a.raw"), names);
+        assertEquals(0, transport.getOpenResponses());
+    }
+
+    @Test
+    public void throwsIOExceptionFromForEachOfTruncatedList() throws Exception {
+        FakeTransport transport = new FakeTransport((url, headers, request) -> FakeResponse.ok(TRUNCATED_FILE_LIST));
+        client = client(transport);
+
+        List<String> names = new ArrayList<>();
+        try {
+            client.getFilesForProject("PXD000001", file -> names.add(file.getFileName()), Fields.NAME);
+            fail("expected the truncated list to fail");
+        } catch (IOException e) {
+            // the parse failure itself, rather than the UncheckedIOException holding it
+            assertTrue(e instanceof JsonProcessingException);
+        }
+        assertEquals(Collections.singletonList("a.raw"), names);
+        assertEquals(0, transport.getOpenResponses());
+    }
+
+    @Test
+    public void sharesResponseOfIdenticalRequestInFlight() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FakeTransport transport = new FakeTransport((url, headers, request) -> {
+            if (request == 1) {
+                firstStarted.countDown();
+                await(release);
+            }
+            return FakeResponse.ok(json("{'accession':'PXD000001'}"));
+        });
+        client = client(transport);
+
+        CompletableFuture<ProjectDetail> first = new CompletableFuture<>();
+        start(() -> projectDetails(first));
+        await(firstStarted);
+        CompletableFuture<ProjectDetail> second = new CompletableFuture<>();
+        awaitWaiting(start(() -> projectDetails(second)));
+        release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, transport.getRequestCount());
+
+        // the request is no longer in flight, so a later call sends a new one
+        assertNotSame(first.get(), client.getProjectDetails("PXD000001"));
+        assertEquals(2, transport.getRequestCount());
+    }
+
+    @Test
+    public void reportsFailureOfSharedRequestToAllCallers() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FakeTransport transport = new FakeTransport((url, headers, request) -> {
+            if (request == 1) {
+                firstStarted.countDown();
+                await(release);
+                return FakeResponse.status(503);
+            }
+            return FakeResponse.ok(json("{'accession':'PXD000001'}"));
+        });
+        client = client(transport);
+
+        CompletableFuture<ProjectDetail> first = new CompletableFuture<>();
+        start(() -> projectDetails(first));
+        await(firstStarted);
+        CompletableFuture<ProjectDetail> second = new CompletableFuture<>();
+        awaitWaiting(start(() -> projectDetails(second)));
+        release.countDown();
+
+        for (CompletableFuture<ProjectDetail> caller : Arrays.asList(first, second)) {
+            try {
+                caller.get(5, TimeUnit.SECONDS);
+                fail("expected the shared request to fail");
+            } catch (ExecutionException e) {
+                assertEquals(503, ((HttpStatusException) e.getCause()).getStatusCode());
+            }
+        }
+        assertEquals(1, transport.getRequestCount());
+
+        // the failed request is not handed out to later callers either
+        assertNotNull(client.getProjectDetails("PXD000001"));
+        assertEquals(2, transport.getRequestCount());
+    }
+
+    private long count(String body) throws Exception {
+        client = client(new FakeTransport((url, headers, request) -> FakeResponse.ok(body)));
+        return client.countProjects(keywords("cancer"));
+    }
+
+    private void assertInvalidCount(String body, String message) throws Exception {
+        try {
+            count(body);
+            fail("expected the count '" + body + "' to be rejected");
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        } finally {
+            client.close();
+            client = null;
+        }
+    }
+
+    private static WsClient client(Transport transport) {
+        return new WsClient(BASE_URL, transport, null);
+    }
+
+    private static Set<String> keywords(String... keywords) {
+        return new LinkedHashSet<>(Arrays.asList(keywords));
+    }
+
+    /**
+     * @param query the query string of a project request.
+     * @return the single keyword queried for.
+     */
+    private static String keyword(String query) {
+        return query.split("&")[0].substring("query=".length());
+    }
+
+    /**
+     * @return the accession a project or assay request is for.
+     */
+    private static String accession(URL url) {
+        return url.getPath().substring(url.getPath().lastIndexOf('/') + 1);
+    }
+
+    /**
+     * @param query the query string of a project list request.
+     * @return the page requested.
+     */
+    private static int page(String query) {
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("page=")) {
+                return Integer.parseInt(parameter.substring("page=".length()));
+            }
+        }
+        throw new IllegalArgumentException("No page in " + query);
+    }
+
+    private FileDetailList files(Fields... fields) {
+        try {
+            return client.getFilesForProject("PXD000001", fields);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void projectDetails(CompletableFuture<ProjectDetail> result) {
+        try {
+            result.complete(client.getProjectDetails("PXD000001"));
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private static Thread start(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Waits until a thread waits for something, e.g. for a request in flight.
+     */
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED) {
+            if (System.nanoTime() - deadline > 0) {
+                fail("timed out waiting for " + thread.getName() + " to wait");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * @param json JSON with single instead of double quotes.
+     * @return the JSON with double quotes.
+     */
+    private static String json(String json) {
+        return json.replace('\'', '"');
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IOException("timed out waiting for a concurrent request");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}